@@ -0,0 +1,100 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.model.request.ItineraryRequest;
+import com.example.travelassistant.model.request.TravelInfoRequest;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.ForecastPromptEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Fixtures gravadas (WeatherAPI e Gemini) para uma viagem de 14 dias a Paris.
+ */
+final class BenchmarkFixtures {
+
+    static final String WEATHER_FORECAST = "weatherapi-forecast-14d.json";
+    static final String GEMINI_BAGGAGE = "gemini-baggage-response.txt";
+    static final String GEMINI_ITINERARY = "gemini-itinerary-response.txt";
+
+    private BenchmarkFixtures() {
+    }
+
+    static byte[] bytes(String name) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Fixture não encontrada: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Mesma configuração usada pelo decoder Jackson do WebClient.
+     */
+    static ObjectMapper webClientObjectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static WeatherResponse forecast() {
+        try {
+            return webClientObjectMapper().readValue(bytes(WEATHER_FORECAST), WeatherResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static TravelInfoRequest baggageRequest() {
+        TravelInfoRequest request = new TravelInfoRequest();
+        request.setCity("Paris");
+        request.setCountry("França");
+        request.setStartDate(LocalDate.of(2025, 7, 1));
+        request.setEndDate(LocalDate.of(2025, 7, 14));
+        request.setTravelPurpose("turismo");
+        request.setUserPreferences("prefiro viajar leve");
+        return request;
+    }
+
+    static ItineraryRequest itineraryRequest() {
+        ItineraryRequest request = new ItineraryRequest();
+        request.setCity("Paris");
+        request.setCountry("França");
+        request.setStartDate("2025-07-01");
+        request.setEndDate("2025-07-14");
+        request.setInterests("museus, história, gastronomia");
+        request.setBudget(3);
+        request.setTravelStyle("cultural");
+        return request;
+    }
+
+    static BaggageService baggageService() {
+        return baggageService(new ForecastPromptEncoder(ForecastPromptEncoder.Format.COMPACT, 0));
+    }
+
+    static BaggageService baggageService(ForecastPromptEncoder forecastEncoder) {
+        return new BaggageService(null, geminiAIService(), null, webClientObjectMapper(), null, null, null, forecastEncoder);
+    }
+
+    static ItineraryService itineraryService() {
+        return itineraryService(new ForecastPromptEncoder(ForecastPromptEncoder.Format.COMPACT, 0));
+    }
+
+    static ItineraryService itineraryService(ForecastPromptEncoder forecastEncoder) {
+        return new ItineraryService(null, geminiAIService(), null, null, null, null, forecastEncoder);
+    }
+
+    static GeminiAIService geminiAIService() {
+        return new GeminiAIService(null, null, null, null, null, null);
+    }
+}
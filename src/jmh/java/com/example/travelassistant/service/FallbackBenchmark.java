@@ -0,0 +1,42 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.model.request.TravelInfoRequest;
+import com.example.travelassistant.model.response.BaggageRecommendationResponse;
+import com.example.travelassistant.model.response.WeatherResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FallbackBenchmark {
+
+    private GeminiAIService geminiAIService;
+    private TravelInfoRequest request;
+    private WeatherResponse forecast;
+
+    @Setup
+    public void setUp() {
+        geminiAIService = BenchmarkFixtures.geminiAIService();
+        request = BenchmarkFixtures.baggageRequest();
+        forecast = BenchmarkFixtures.forecast();
+    }
+
+    @Benchmark
+    public BaggageRecommendationResponse generateFallbackBaggageRecommendation() {
+        return geminiAIService.generateFallbackBaggageRecommendation(request, forecast);
+    }
+}
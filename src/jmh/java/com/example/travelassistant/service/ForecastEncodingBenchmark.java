@@ -0,0 +1,162 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.model.request.ItineraryRequest;
+import com.example.travelassistant.model.response.ItineraryResponse;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.ForecastPromptEncoder;
+import com.example.travelassistant.service.support.GeminiResponseSchema;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Previsão no formato verboso x compacto, no prompt do roteiro de 14 dias.
+ * buildItineraryPrompt mede o custo de montar o prompt, e o tamanho de cada formato (caracteres e tokens estimados)
+ * é impresso no início. geminiLatency chama o Gemini de verdade (variáveis GEMINI_API_KEY e, opcionalmente,
+ * GEMINI_API_URL), com o mesmo responseSchema do serviço, e mede a latência de ponta a ponta; ao fim de cada iteração
+ * imprime a média exata de tokens de entrada (usageMetadata.promptTokenCount) e quantas respostas viraram um roteiro
+ * válido.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class ForecastEncodingBenchmark {
+
+    @Param({"VERBOSE", "COMPACT"})
+    public ForecastPromptEncoder.Format format;
+
+    private ItineraryService itineraryService;
+    private ItineraryRequest request;
+    private WeatherResponse forecast;
+    private String prompt;
+
+    @Setup
+    public void setUp() {
+        itineraryService = BenchmarkFixtures.itineraryService(new ForecastPromptEncoder(format, 0));
+        request = BenchmarkFixtures.itineraryRequest();
+        forecast = BenchmarkFixtures.forecast();
+        prompt = itineraryService.buildItineraryPrompt(request, forecast);
+
+        int chars = ItineraryService.ITINERARY_INSTRUCTIONS.length() + prompt.length();
+        System.out.printf("%nPrompt do roteiro (%s): %d caracteres, ~%d tokens; previsão: %d caracteres%n",
+                format, chars, chars / 4, prompt.length() - prompt.indexOf("\n\n") - 2);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public String buildItineraryPrompt() {
+        return itineraryService.buildItineraryPrompt(request, forecast);
+    }
+
+    /**
+     * Poucas chamadas sequenciais por iteração, para caber no limite de requisições por minuto da chave gratuita.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1, time = 10)
+    @Measurement(iterations = 3, time = 20)
+    public String geminiLatency(GeminiClient gemini) throws Exception {
+        String text = gemini.generate(ItineraryService.ITINERARY_INSTRUCTIONS, prompt);
+        gemini.recordParse(isValidItinerary(text));
+        return text;
+    }
+
+    private boolean isValidItinerary(String text) {
+        try {
+            ItineraryResponse response = BenchmarkFixtures.webClientObjectMapper().readValue(text, ItineraryResponse.class);
+            return response.getDayPlans() != null && response.getDayPlans().size() == forecast.getForecast().getForecastday().size();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class GeminiClient {
+
+        private static final String DEFAULT_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash";
+
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private URI uri;
+        private long calls;
+        private long promptTokens;
+        private long validResponses;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String key = System.getenv("GEMINI_API_KEY");
+            if (key == null || key.isBlank()) {
+                throw new IllegalStateException("geminiLatency chama a API Gemini e precisa da variável GEMINI_API_KEY");
+            }
+            String url = Objects.requireNonNullElse(System.getenv("GEMINI_API_URL"), DEFAULT_URL);
+            uri = URI.create(url + ":generateContent?key=" + key);
+        }
+
+        String generate(String instructions, String prompt) throws Exception {
+            ObjectNode body = objectMapper.createObjectNode();
+            body.putObject("systemInstruction").putArray("parts").addObject().put("text", instructions);
+            ObjectNode content = body.putArray("contents").addObject();
+            content.put("role", "user");
+            content.putArray("parts").addObject().put("text", prompt);
+            ObjectNode generationConfig = body.putObject("generationConfig");
+            generationConfig.put("responseMimeType", "application/json");
+            generationConfig.set("responseSchema", GeminiResponseSchema.of(ItineraryResponse.class));
+
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                            .timeout(Duration.ofSeconds(60))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Gemini respondeu " + response.statusCode() + ": " + response.body());
+            }
+
+            JsonNode json = objectMapper.readTree(response.body());
+            calls++;
+            promptTokens += json.at("/usageMetadata/promptTokenCount").asLong();
+            return json.at("/candidates/0/content/parts/0/text").asText("");
+        }
+
+        void recordParse(boolean valid) {
+            if (valid) {
+                validResponses++;
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            if (calls > 0) {
+                System.out.printf("%n%d chamadas, %d tokens de entrada por chamada, %d roteiros válidos%n",
+                        calls, promptTokens / calls, validResponses);
+            }
+            calls = 0;
+            promptTokens = 0;
+            validResponses = 0;
+        }
+    }
+}
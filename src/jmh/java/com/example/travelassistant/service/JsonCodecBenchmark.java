@@ -0,0 +1,66 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.config.JacksonConfig;
+import com.example.travelassistant.model.response.ItineraryResponse;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Desserialização da previsão de 14 dias da WeatherAPI (completa e apenas o resumo diário)
+ * e serialização de um roteiro de 14 dias.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private ObjectMapper webClientObjectMapper;
+    private ForecastDecoder forecastDecoder;
+    private ObjectMapper applicationObjectMapper;
+    private byte[] forecastJson;
+    private ItineraryResponse itinerary;
+
+    @Setup
+    public void setUp() throws IOException {
+        webClientObjectMapper = BenchmarkFixtures.webClientObjectMapper();
+        forecastDecoder = new ForecastDecoder();
+        applicationObjectMapper = new JacksonConfig().objectMapper();
+        forecastJson = BenchmarkFixtures.bytes(BenchmarkFixtures.WEATHER_FORECAST);
+
+        String itineraryText = BenchmarkFixtures.text(BenchmarkFixtures.GEMINI_ITINERARY);
+        String itineraryJson = BenchmarkFixtures.itineraryService().extractJsonFromString(itineraryText);
+        itinerary = applicationObjectMapper.readValue(itineraryJson, ItineraryResponse.class);
+    }
+
+    @Benchmark
+    public WeatherResponse deserializeForecast() throws IOException {
+        return webClientObjectMapper.readValue(forecastJson, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public WeatherResponse decodeForecastDailySummary() {
+        return forecastDecoder.decode(new ByteArrayInputStream(forecastJson));
+    }
+
+    @Benchmark
+    public byte[] serializeItinerary() throws IOException {
+        return applicationObjectMapper.writeValueAsBytes(itinerary);
+    }
+}
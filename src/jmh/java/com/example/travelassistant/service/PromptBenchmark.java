@@ -0,0 +1,51 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.model.request.ItineraryRequest;
+import com.example.travelassistant.model.request.TravelInfoRequest;
+import com.example.travelassistant.model.response.WeatherResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptBenchmark {
+
+    private BaggageService baggageService;
+    private ItineraryService itineraryService;
+    private TravelInfoRequest baggageRequest;
+    private ItineraryRequest itineraryRequest;
+    private WeatherResponse forecast;
+
+    @Setup
+    public void setUp() {
+        baggageService = BenchmarkFixtures.baggageService();
+        itineraryService = BenchmarkFixtures.itineraryService();
+        baggageRequest = BenchmarkFixtures.baggageRequest();
+        itineraryRequest = BenchmarkFixtures.itineraryRequest();
+        forecast = BenchmarkFixtures.forecast();
+    }
+
+    @Benchmark
+    public String buildBaggagePrompt() {
+        return baggageService.buildBaggagePrompt(baggageRequest, forecast);
+    }
+
+    @Benchmark
+    public String buildItineraryPrompt() {
+        return itineraryService.buildItineraryPrompt(itineraryRequest, forecast);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.model.response.BaggageRecommendationResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura das respostas gravadas do Gemini: a bagagem pelo caminho de texto livre (árvore do envelope, texto em String,
+ * recorte do JSON e desserialização) e pelo de resposta estruturada (texto do candidato lido direto do envelope),
+ * e a extração do JSON do texto acumulado no streaming do roteiro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseParsingBenchmark {
+
+    private GeminiAIService geminiAIService;
+    private ItineraryService itineraryService;
+    private ObjectMapper objectMapper;
+    private ObjectReader baggageReader;
+    private byte[] baggageEnvelope;
+    private String itineraryText;
+
+    @Setup
+    public void setUp() throws IOException {
+        geminiAIService = BenchmarkFixtures.geminiAIService();
+        itineraryService = BenchmarkFixtures.itineraryService();
+        objectMapper = BenchmarkFixtures.webClientObjectMapper();
+        baggageReader = new ObjectMapper().readerFor(BaggageRecommendationResponse.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        itineraryText = BenchmarkFixtures.text(BenchmarkFixtures.GEMINI_ITINERARY);
+
+        // Envelope do generateContent com o JSON da bagagem como texto do candidato, como na resposta estruturada
+        String baggageJson = itineraryService.extractJsonFromString(BenchmarkFixtures.text(BenchmarkFixtures.GEMINI_BAGGAGE));
+        ObjectNode envelope = objectMapper.createObjectNode();
+        envelope.putArray("candidates").addObject()
+                .putObject("content").putArray("parts").addObject().put("text", baggageJson);
+        baggageEnvelope = objectMapper.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public BaggageRecommendationResponse readBaggageFromText() throws IOException {
+        String text = objectMapper.readTree(baggageEnvelope).at("/candidates/0/content/parts/0/text").asText();
+        return objectMapper.readValue(itineraryService.extractJsonFromString(text), BaggageRecommendationResponse.class);
+    }
+
+    @Benchmark
+    public BaggageRecommendationResponse readBaggageStructured() throws IOException {
+        return geminiAIService.readCandidate(baggageEnvelope, baggageReader);
+    }
+
+    @Benchmark
+    public String extractItineraryJson() {
+        return itineraryService.extractJsonFromString(itineraryText);
+    }
+}
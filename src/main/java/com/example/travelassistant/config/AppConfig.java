@@ -18,6 +18,93 @@ public class AppConfig {
     @Value("${gemini.api.url}")
     private String geminiApiUrl;
 
+    @Value("${weather.cache.ttl-minutes:30}")
+    private long weatherCacheTtlMinutes;
+
+    @Value("${weather.cache.max-stale-minutes:360}")
+    private long weatherCacheMaxStaleMinutes;
+
+    @Value("${weather.http.max-response-mb:16}")
+    private int weatherMaxResponseMb;
+
+    @Value("${location.canonical.max-entries:100000}")
+    private int locationCanonicalMaxEntries;
+
+    @Value("${weather.geo.enabled:true}")
+    private boolean weatherGeoEnabled;
+
+    @Value("${weather.geo.radius-km:15}")
+    private double weatherGeoRadiusKm;
+
+    @Value("${weather.geo.max-age-minutes:60}")
+    private long weatherGeoMaxAgeMinutes;
+
+    @Value("${weather.geo.resolve-unknown:false}")
+    private boolean weatherGeoResolveUnknown;
+
+    @Value("${weather.geo.unresolved-ttl-minutes:60}")
+    private long weatherGeoUnresolvedTtlMinutes;
+
+    @Value("${weather.prefetch.enabled:true}")
+    private boolean weatherPrefetchEnabled;
+
+    @Value("${weather.prefetch.top-k:50}")
+    private int weatherPrefetchTopK;
+
+    @Value("${weather.prefetch.history-hours:168}")
+    private long weatherPrefetchHistoryHours;
+
+    @Value("${weather.prefetch.max-concurrency:4}")
+    private int weatherPrefetchMaxConcurrency;
+
+    @Value("${weather.prefetch.rate-per-second:5}")
+    private double weatherPrefetchRatePerSecond;
+
+    @Value("${gemini.deadline.baggage-ms:8000}")
+    private long geminiDeadlineBaggageMs;
+
+    @Value("${gemini.deadline.itinerary-ms:15000}")
+    private long geminiDeadlineItineraryMs;
+
+    @Value("${gemini.cache.ttl-minutes:60}")
+    private long geminiCacheTtlMinutes;
+
+    @Value("${gemini.cache.max-entries:10000}")
+    private int geminiCacheMaxEntries;
+
+    @Value("${prompt.forecast.format:compact}")
+    private String promptForecastFormat;
+
+    @Value("${prompt.forecast.precision:0}")
+    private int promptForecastPrecision;
+
+    @Value("${storage.log.enabled:false}")
+    private boolean storageLogEnabled;
+
+    @Value("${storage.log.directory:data/queries}")
+    private String storageLogDirectory;
+
+    @Value("${storage.log.segment-size-mb:64}")
+    private int storageLogSegmentSizeMb;
+
+    @Value("${storage.log.fsync-interval-ms:1000}")
+    private long storageLogFsyncIntervalMs;
+
+    @Value("${batch.max-size:500}")
+    private int batchMaxSize;
+
+    @Value("${batch.max-concurrency:8}")
+    private int batchMaxConcurrency;
+
+    @Value("${logging.payload.max-chars:512}")
+    private int loggingPayloadMaxChars;
+
+    @Value("${logging.payload.full-max-chars:65536}")
+    private int loggingPayloadFullMaxChars;
+
+    @Value("${logging.payload.sample-rate:0.001}")
+    private double loggingPayloadSampleRate;
+
     public String getWeatherApiKey() {
         return weatherApiKey;
     }
@@ -33,4 +120,120 @@ public class AppConfig {
     public String getGeminiApiUrl() {
         return geminiApiUrl;
     }
+
+    public long getWeatherCacheTtlMinutes() {
+        return weatherCacheTtlMinutes;
+    }
+
+    public long getWeatherCacheMaxStaleMinutes() {
+        return weatherCacheMaxStaleMinutes;
+    }
+
+    public int getWeatherMaxResponseMb() {
+        return weatherMaxResponseMb;
+    }
+
+    public int getLocationCanonicalMaxEntries() {
+        return locationCanonicalMaxEntries;
+    }
+
+    public boolean isWeatherGeoEnabled() {
+        return weatherGeoEnabled;
+    }
+
+    public double getWeatherGeoRadiusKm() {
+        return weatherGeoRadiusKm;
+    }
+
+    public long getWeatherGeoMaxAgeMinutes() {
+        return weatherGeoMaxAgeMinutes;
+    }
+
+    public boolean isWeatherGeoResolveUnknown() {
+        return weatherGeoResolveUnknown;
+    }
+
+    public long getWeatherGeoUnresolvedTtlMinutes() {
+        return weatherGeoUnresolvedTtlMinutes;
+    }
+
+    public boolean isWeatherPrefetchEnabled() {
+        return weatherPrefetchEnabled;
+    }
+
+    public int getWeatherPrefetchTopK() {
+        return weatherPrefetchTopK;
+    }
+
+    public long getWeatherPrefetchHistoryHours() {
+        return weatherPrefetchHistoryHours;
+    }
+
+    public int getWeatherPrefetchMaxConcurrency() {
+        return weatherPrefetchMaxConcurrency;
+    }
+
+    public double getWeatherPrefetchRatePerSecond() {
+        return weatherPrefetchRatePerSecond;
+    }
+
+    public long getGeminiDeadlineBaggageMs() {
+        return geminiDeadlineBaggageMs;
+    }
+
+    public long getGeminiDeadlineItineraryMs() {
+        return geminiDeadlineItineraryMs;
+    }
+
+    public long getGeminiCacheTtlMinutes() {
+        return geminiCacheTtlMinutes;
+    }
+
+    public int getGeminiCacheMaxEntries() {
+        return geminiCacheMaxEntries;
+    }
+
+    public String getPromptForecastFormat() {
+        return promptForecastFormat;
+    }
+
+    public int getPromptForecastPrecision() {
+        return promptForecastPrecision;
+    }
+
+    public boolean isStorageLogEnabled() {
+        return storageLogEnabled;
+    }
+
+    public String getStorageLogDirectory() {
+        return storageLogDirectory;
+    }
+
+    public int getStorageLogSegmentSizeMb() {
+        return storageLogSegmentSizeMb;
+    }
+
+    public long getStorageLogFsyncIntervalMs() {
+        return storageLogFsyncIntervalMs;
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    public int getBatchMaxConcurrency() {
+        return batchMaxConcurrency;
+    }
+
+    public int getLoggingPayloadMaxChars() {
+        return loggingPayloadMaxChars;
+    }
+
+    public int getLoggingPayloadFullMaxChars() {
+        return loggingPayloadFullMaxChars;
+    }
+
+    public double getLoggingPayloadSampleRate() {
+        return loggingPayloadSampleRate;
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.travelassistant.config;
+
+import io.micrometer.context.ContextRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Associa um id de correlação a cada requisição (cabeçalho X-Correlation-Id ou um UUID novo) e o grava no MDC.
+ * O id é registrado no ContextRegistry, de modo que, com spring.reactor.context-propagation=auto, os logs
+ * das chamadas à WeatherAPI, ao Gemini e da gravação do histórico, em outras threads, tragam o mesmo id.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Correlation-Id";
+    public static final String MDC_KEY = "correlationId";
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(
+                MDC_KEY,
+                () -> MDC.get(MDC_KEY),
+                value -> MDC.put(MDC_KEY, value),
+                () -> MDC.remove(MDC_KEY));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String correlationId = request.getHeader(HEADER);
+        if (correlationId == null || correlationId.isBlank() || correlationId.length() > 64) {
+            correlationId = UUID.randomUUID().toString();
+        }
+
+        MDC.put(MDC_KEY, correlationId);
+        response.setHeader(HEADER, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
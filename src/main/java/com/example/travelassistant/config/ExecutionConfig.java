@@ -0,0 +1,26 @@
+package com.example.travelassistant.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutionConfig {
+
+    /**
+     * Scheduler para trabalho bloqueante fora do fluxo reativo (ex.: gravação do histórico).
+     * Com spring.threads.virtual.enabled=true, cada tarefa roda em uma virtual thread; caso contrário,
+     * usa o boundedElastic compartilhado do Reactor.
+     */
+    @Bean(destroyMethod = "")
+    public Scheduler blockingScheduler(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "virtual-blocking");
+        }
+        return Schedulers.boundedElastic();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.travelassistant.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Substitui o conversor JSON padrão do Spring MVC por um que mede a serialização das respostas,
+     * por tipo de objeto (inclusive cada elemento de respostas NDJSON e SSE).
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                  MeterRegistry meterRegistry) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    sample.stop(Timer.builder("travel.response.serialization")
+                            .description("Duração da serialização JSON das respostas")
+                            .tag("type", object == null ? "null" : object.getClass().getSimpleName())
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.travelassistant.config;
+
+import com.example.travelassistant.model.request.ItineraryRequest;
+import com.example.travelassistant.model.request.TravelInfoRequest;
+import com.example.travelassistant.model.request.TripPlanRequest;
+import com.example.travelassistant.model.response.AboutResponse;
+import com.example.travelassistant.model.response.BaggageRecommendationResponse;
+import com.example.travelassistant.model.response.BatchItemResponse;
+import com.example.travelassistant.model.response.ItineraryResponse;
+import com.example.travelassistant.model.response.TripPlanResponse;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.model.storage.TravelQuery;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Hints para a imagem nativa (mvn -Pnative).
+ * Os controllers já têm os tipos de entrada e saída registrados pelo Spring AOT, mas os modelos também são lidos
+ * fora deles (respostas do Gemini com readValue/treeToValue, WeatherAPI com bodyToMono, histórico em disco)
+ * e precisam de reflexão para o Jackson, inclusive as classes internas.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+        WeatherResponse.class,
+        WeatherResponse.Location[].class,
+        ItineraryResponse.class,
+        BaggageRecommendationResponse.class,
+        TripPlanResponse.class,
+        BatchItemResponse.class,
+        AboutResponse.class,
+        TravelQuery.class,
+        TravelInfoRequest.class,
+        ItineraryRequest.class,
+        TripPlanRequest.class
+})
+@ImportRuntimeHints(NativeConfig.Hints.class)
+public class NativeConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // @JsonNaming instancia a estratégia por reflexão
+            hints.reflection().registerType(PropertyNamingStrategies.SnakeCaseStrategy.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
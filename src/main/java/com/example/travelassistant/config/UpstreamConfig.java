@@ -0,0 +1,115 @@
+package com.example.travelassistant.config;
+
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.AdaptiveConcurrencyLimit;
+import com.example.travelassistant.service.support.CircuitBreaker;
+import com.example.travelassistant.service.support.RequestHedger;
+import com.example.travelassistant.service.support.SingleFlight;
+import com.example.travelassistant.service.support.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+@Configuration
+public class UpstreamConfig {
+
+    @Bean
+    public SingleFlight<String, WeatherResponse> weatherSingleFlight(MeterRegistry meterRegistry) {
+        SingleFlight<String, WeatherResponse> singleFlight = new SingleFlight<>("weather");
+        singleFlight.bindTo(meterRegistry);
+        return singleFlight;
+    }
+
+    @Bean
+    public SingleFlight<String, byte[]> geminiSingleFlight(MeterRegistry meterRegistry) {
+        SingleFlight<String, byte[]> singleFlight = new SingleFlight<>("gemini");
+        singleFlight.bindTo(meterRegistry);
+        return singleFlight;
+    }
+
+    @Bean
+    public UpstreamGuard weatherGuard(
+            MeterRegistry meterRegistry,
+            @Value("${weather.circuit.window-size:50}") int windowSize,
+            @Value("${weather.circuit.minimum-calls:20}") int minimumCalls,
+            @Value("${weather.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+            @Value("${weather.circuit.slow-call-ms:3000}") long slowCallMs,
+            @Value("${weather.circuit.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+            @Value("${weather.circuit.open-ms:30000}") long openMs,
+            @Value("${weather.circuit.half-open-calls:5}") int halfOpenCalls,
+            @Value("${weather.circuit.call-timeout-ms:10000}") long callTimeoutMs,
+            @Value("${weather.limit.initial:20}") int initialLimit,
+            @Value("${weather.limit.min:2}") int minLimit,
+            @Value("${weather.limit.max:50}") int maxLimit,
+            @Value("${weather.limit.latency-target-ms:1500}") long latencyTargetMs) {
+        return guard(meterRegistry, "weather",
+                new CircuitBreaker("weather", windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                        Duration.ofMillis(slowCallMs), Duration.ofMillis(openMs), halfOpenCalls),
+                new AdaptiveConcurrencyLimit("weather", initialLimit, minLimit, maxLimit,
+                        Duration.ofMillis(latencyTargetMs), 0.9),
+                Duration.ofMillis(callTimeoutMs));
+    }
+
+    @Bean
+    public UpstreamGuard geminiGuard(
+            MeterRegistry meterRegistry,
+            @Value("${gemini.circuit.window-size:50}") int windowSize,
+            @Value("${gemini.circuit.minimum-calls:20}") int minimumCalls,
+            @Value("${gemini.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+            @Value("${gemini.circuit.slow-call-ms:12000}") long slowCallMs,
+            @Value("${gemini.circuit.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+            @Value("${gemini.circuit.open-ms:30000}") long openMs,
+            @Value("${gemini.circuit.half-open-calls:5}") int halfOpenCalls,
+            @Value("${gemini.circuit.call-timeout-ms:60000}") long callTimeoutMs,
+            @Value("${gemini.limit.initial:50}") int initialLimit,
+            @Value("${gemini.limit.min:5}") int minLimit,
+            @Value("${gemini.limit.max:100}") int maxLimit,
+            @Value("${gemini.limit.latency-target-ms:8000}") long latencyTargetMs) {
+        return guard(meterRegistry, "gemini",
+                new CircuitBreaker("gemini", windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                        Duration.ofMillis(slowCallMs), Duration.ofMillis(openMs), halfOpenCalls),
+                new AdaptiveConcurrencyLimit("gemini", initialLimit, minLimit, maxLimit,
+                        Duration.ofMillis(latencyTargetMs), 0.9),
+                Duration.ofMillis(callTimeoutMs));
+    }
+
+    /**
+     * Hedge das requisições de previsão (idempotentes): desativado por padrão.
+     */
+    @Bean
+    public RequestHedger weatherHedger(
+            MeterRegistry meterRegistry,
+            @Value("${weather.hedge.enabled:false}") boolean enabled,
+            @Value("${weather.hedge.percentile:95}") double percentile,
+            @Value("${weather.hedge.min-delay-ms:50}") long minDelayMs,
+            @Value("${weather.hedge.max-delay-ms:2000}") long maxDelayMs,
+            @Value("${weather.hedge.budget-percent:10}") double budgetPercent) {
+        RequestHedger hedger = new RequestHedger("weather", enabled, percentile,
+                Duration.ofMillis(minDelayMs), Duration.ofMillis(maxDelayMs), budgetPercent);
+        hedger.bindTo(meterRegistry);
+        return hedger;
+    }
+
+    private UpstreamGuard guard(MeterRegistry meterRegistry, String name, CircuitBreaker circuitBreaker,
+                                AdaptiveConcurrencyLimit concurrencyLimit, Duration callTimeout) {
+        circuitBreaker.bindTo(meterRegistry);
+        concurrencyLimit.bindTo(meterRegistry);
+        return new UpstreamGuard(name, circuitBreaker, concurrencyLimit, UpstreamConfig::isUpstreamFailure, callTimeout);
+    }
+
+    /**
+     * Erros de rede, timeouts, 5xx e 429 contam contra o serviço externo; os demais 4xx são erros do próprio pedido.
+     */
+    static boolean isUpstreamFailure(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof WebClientResponseException response) {
+                return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+            }
+        }
+        return true;
+    }
+}
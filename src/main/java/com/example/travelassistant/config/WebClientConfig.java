@@ -1,24 +1,119 @@
 package com.example.travelassistant.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.regex.Pattern;
 
 @Configuration
 public class WebClientConfig {
 
+    // Segmentos de caminho numéricos ou identificadores longos (hex, UUID)
+    private static final Pattern ID_SEGMENT = Pattern.compile("(?<=/)(\\d+|[0-9a-fA-F-]{16,})(?=/|$)");
+
     @Bean
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider weatherConnectionProvider(
+            @Value("${weather.http.max-connections:50}") int maxConnections,
+            @Value("${weather.http.pending-acquire-max:200}") int pendingAcquireMax,
+            @Value("${weather.http.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${weather.http.max-idle-ms:30000}") long maxIdleMs) {
+        return connectionProvider("weather-api", maxConnections, pendingAcquireMax, pendingAcquireTimeoutMs, maxIdleMs);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider geminiConnectionProvider(
+            @Value("${gemini.http.max-connections:100}") int maxConnections,
+            @Value("${gemini.http.pending-acquire-max:500}") int pendingAcquireMax,
+            @Value("${gemini.http.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${gemini.http.max-idle-ms:60000}") long maxIdleMs) {
+        return connectionProvider("gemini-api", maxConnections, pendingAcquireMax, pendingAcquireTimeoutMs, maxIdleMs);
+    }
+
+    /**
+     * Cada API externa tem o seu próprio pool de conexões: uma lentidão no Gemini não consome as conexões da WeatherAPI.
+     */
     @Bean
-    public WebClient weatherApiClient(WebClient.Builder webClientBuilder) {
-        return webClientBuilder.build();
+    public WebClient weatherApiClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider weatherConnectionProvider,
+            @Value("${weather.api.url}") String baseUrl,
+            @Value("${weather.http.http2:true}") boolean http2) {
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient(weatherConnectionProvider, baseUrl, http2)))
+                .build();
     }
 
     @Bean
-    public WebClient geminiApiClient(WebClient.Builder webClientBuilder) {
-        return webClientBuilder.build();
+    public WebClient geminiApiClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider geminiConnectionProvider,
+            @Value("${gemini.api.url}") String baseUrl,
+            @Value("${gemini.http.http2:true}") boolean http2) {
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient(geminiConnectionProvider, baseUrl, http2)))
+                .build();
+    }
+
+    private ConnectionProvider connectionProvider(String name, int maxConnections, int pendingAcquireMax,
+                                                  long pendingAcquireTimeoutMs, long maxIdleMs) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs / 2))
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Com a URL base em https, o HTTP/2 é negociado via ALPN com fallback para HTTP/1.1; em http (stubs locais,
+     * proxies sem TLS) as conexões usam HTTP/1.1. Respostas gzip são descompactadas automaticamente.
+     * As métricas do cliente usam o URI reduzido a um modelo (ver {@link #uriTag}).
+     */
+    private HttpClient httpClient(ConnectionProvider connectionProvider, String baseUrl, boolean http2) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .compress(true)
+                .metrics(true, WebClientConfig::uriTag);
+
+        if (http2 && "https".equalsIgnoreCase(URI.create(baseUrl).getScheme())) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+        return httpClient;
+    }
+
+    /**
+     * Valor da tag "uri" das métricas do cliente HTTP: só o caminho, sem a query string (que leva a chave da API e a
+     * localização pesquisada), com identificadores trocados por "{id}", para que cada endpoint gere uma única série.
+     */
+    static String uriTag(String uri) {
+        int end = uri.length();
+        for (char separator : new char[] { '?', '#' }) {
+            int index = uri.indexOf(separator);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+        String path = uri.substring(0, end);
+
+        int scheme = path.indexOf("://");
+        if (scheme >= 0) {
+            int pathStart = path.indexOf('/', scheme + 3);
+            path = pathStart >= 0 ? path.substring(pathStart) : "/";
+        }
+        return ID_SEGMENT.matcher(path).replaceAll("{id}");
     }
-}
\ No newline at end of file
+}
@@ -23,9 +23,13 @@ public class AboutController {
 
         List<AboutResponse.Endpoint> endpoints = List.of(
                 createEndpoint("/bagagem", "POST", "Gerar recomendação de bagagem com base no clima"),
+                createEndpoint("/bagagem/lote", "POST", "Gerar recomendações de bagagem em lote (NDJSON)"),
                 createEndpoint("/bagagem/destinos", "GET", "Listar destinos já consultados para bagagem"),
                 createEndpoint("/bagagem/historico", "GET", "Listar histórico de consultas de bagagem"),
+                createEndpoint("/viagem", "POST", "Gerar bagagem e roteiro em uma única resposta"),
                 createEndpoint("/roteiro", "POST", "Gerar roteiro de viagem com base no clima"),
+                createEndpoint("/roteiro/stream", "POST", "Gerar roteiro de viagem em streaming (Server-Sent Events)"),
+                createEndpoint("/roteiro/lote", "POST", "Gerar roteiros de viagem em lote (NDJSON)"),
                 createEndpoint("/roteiro/destinos", "GET", "Listar destinos já consultados para roteiros"),
                 createEndpoint("/roteiro/historico", "GET", "Listar histórico de consultas de roteiros"),
                 createEndpoint("/sobre", "GET", "Informações sobre a API")
@@ -2,13 +2,20 @@ package com.example.travelassistant.controller;
 
 import com.example.travelassistant.model.request.TravelInfoRequest;
 import com.example.travelassistant.model.response.BaggageRecommendationResponse;
+import com.example.travelassistant.model.response.BatchItemResponse;
 import com.example.travelassistant.model.storage.QueryRepository;
 import com.example.travelassistant.model.storage.TravelQuery;
 import com.example.travelassistant.service.BaggageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,32 +24,50 @@ public class BaggageController {
 
     private final BaggageService baggageService;
     private final QueryRepository queryRepository;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BaggageController(BaggageService baggageService, QueryRepository queryRepository) {
+    public BaggageController(BaggageService baggageService, QueryRepository queryRepository, ObjectMapper objectMapper) {
         this.baggageService = baggageService;
         this.queryRepository = queryRepository;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
-    public ResponseEntity<BaggageRecommendationResponse> getBaggageRecommendation(@RequestBody TravelInfoRequest request) {
-        BaggageRecommendationResponse response = baggageService.getBaggageRecommendation(request);
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<BaggageRecommendationResponse>> getBaggageRecommendation(@RequestBody TravelInfoRequest request) {
+        return baggageService.getBaggageRecommendation(request)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Recomendações em lote, emitidas em NDJSON na ordem em que ficam prontas.
+     */
+    @PostMapping(value = "/lote", produces = HistoryResponses.NDJSON)
+    public Flux<BatchItemResponse<BaggageRecommendationResponse>> getBaggageRecommendations(@RequestBody List<TravelInfoRequest> requests) {
+        return baggageService.getBaggageRecommendations(requests);
     }
 
     @GetMapping("/destinos")
     public ResponseEntity<List<String>> getDestinations() {
-        List<String> destinations = queryRepository.findByRequestType("baggage").stream()
-                .map(TravelQuery::getDestination)
-                .distinct()
-                .toList();
+        List<String> destinations = queryRepository.findDestinationsByRequestType(TravelQuery.BAGGAGE);
 
         return ResponseEntity.ok(destinations);
     }
 
     @GetMapping("/historico")
-    public ResponseEntity<List<TravelQuery>> getHistory() {
-        List<TravelQuery> queries = queryRepository.findByRequestType("baggage");
-        return ResponseEntity.ok(queries);
+    public ResponseEntity<List<TravelQuery>> getHistory(
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return HistoryResponses.page(queryRepository, TravelQuery.BAGGAGE, limit, after, from, to);
+    }
+
+    @GetMapping(value = "/historico", produces = HistoryResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamHistory(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return HistoryResponses.stream(queryRepository, objectMapper, TravelQuery.BAGGAGE, after, from, to);
     }
-}
\ No newline at end of file
+}
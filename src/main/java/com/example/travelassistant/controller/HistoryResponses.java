@@ -0,0 +1,82 @@
+package com.example.travelassistant.controller;
+
+import com.example.travelassistant.exception.ApiException;
+import com.example.travelassistant.model.storage.QueryRepository;
+import com.example.travelassistant.model.storage.TravelQuery;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Respostas paginadas e em streaming (NDJSON) para os endpoints de histórico.
+ */
+final class HistoryResponses {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int FLUSH_EVERY = 100;
+
+    private HistoryResponses() {
+    }
+
+    /**
+     * Página de até {@code limit} consultas. Quando a página está cheia, o id da última consulta
+     * é devolvido no cabeçalho X-Next-Cursor para ser usado como {@code after} na próxima chamada.
+     */
+    static ResponseEntity<List<TravelQuery>> page(QueryRepository queryRepository, String requestType,
+                                                  int limit, String after, LocalDateTime from, LocalDateTime to) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<TravelQuery> page = query(queryRepository, requestType, after, from, to)
+                .limit(pageSize)
+                .toList();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, page.get(page.size() - 1).getId());
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Escreve cada consulta no corpo da resposta assim que é lida do repositório, uma por linha.
+     */
+    static ResponseEntity<StreamingResponseBody> stream(QueryRepository queryRepository, ObjectMapper objectMapper,
+                                                        String requestType, String after, LocalDateTime from, LocalDateTime to) {
+        Stream<TravelQuery> queries = query(queryRepository, requestType, after, from, to);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                int written = 0;
+                for (TravelQuery travelQuery : (Iterable<TravelQuery>) queries::iterator) {
+                    writer.writeValue(generator, travelQuery);
+                    generator.writeRaw('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+
+        return ResponseEntity.ok().body(body);
+    }
+
+    private static Stream<TravelQuery> query(QueryRepository queryRepository, String requestType,
+                                             String after, LocalDateTime from, LocalDateTime to) {
+        try {
+            return queryRepository.streamByRequestType(requestType, after, from, to);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
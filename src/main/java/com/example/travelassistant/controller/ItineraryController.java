@@ -1,14 +1,23 @@
 package com.example.travelassistant.controller;
 
 import com.example.travelassistant.model.request.ItineraryRequest;
+import com.example.travelassistant.model.response.BatchItemResponse;
 import com.example.travelassistant.model.response.ItineraryResponse;
 import com.example.travelassistant.model.storage.QueryRepository;
 import com.example.travelassistant.model.storage.TravelQuery;
 import com.example.travelassistant.service.ItineraryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,32 +26,55 @@ public class ItineraryController {
 
     private final ItineraryService itineraryService;
     private final QueryRepository queryRepository;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ItineraryController(ItineraryService itineraryService, QueryRepository queryRepository) {
+    public ItineraryController(ItineraryService itineraryService, QueryRepository queryRepository, ObjectMapper objectMapper) {
         this.itineraryService = itineraryService;
         this.queryRepository = queryRepository;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
-    public ResponseEntity<ItineraryResponse> generateItinerary(@RequestBody ItineraryRequest request) {
-        ItineraryResponse response = itineraryService.generateItinerary(request);
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<ItineraryResponse>> generateItinerary(@RequestBody ItineraryRequest request) {
+        return itineraryService.generateItinerary(request)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamItinerary(@RequestBody ItineraryRequest request) {
+        return itineraryService.streamItinerary(request);
+    }
+
+    /**
+     * Roteiros em lote, emitidos em NDJSON na ordem em que ficam prontos.
+     */
+    @PostMapping(value = "/lote", produces = HistoryResponses.NDJSON)
+    public Flux<BatchItemResponse<ItineraryResponse>> generateItineraries(@RequestBody List<ItineraryRequest> requests) {
+        return itineraryService.generateItineraries(requests);
     }
 
     @GetMapping("/destinos")
     public ResponseEntity<List<String>> getDestinations() {
-        List<String> destinations = queryRepository.findByRequestType("itinerary").stream()
-                .map(TravelQuery::getDestination)
-                .distinct()
-                .toList();
+        List<String> destinations = queryRepository.findDestinationsByRequestType(TravelQuery.ITINERARY);
 
         return ResponseEntity.ok(destinations);
     }
 
     @GetMapping("/historico")
-    public ResponseEntity<List<TravelQuery>> getHistory() {
-        List<TravelQuery> queries = queryRepository.findByRequestType("itinerary");
-        return ResponseEntity.ok(queries);
+    public ResponseEntity<List<TravelQuery>> getHistory(
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return HistoryResponses.page(queryRepository, TravelQuery.ITINERARY, limit, after, from, to);
+    }
+
+    @GetMapping(value = "/historico", produces = HistoryResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamHistory(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return HistoryResponses.stream(queryRepository, objectMapper, TravelQuery.ITINERARY, after, from, to);
     }
 }
@@ -0,0 +1,27 @@
+package com.example.travelassistant.controller;
+
+import com.example.travelassistant.model.request.TripPlanRequest;
+import com.example.travelassistant.model.response.TripPlanResponse;
+import com.example.travelassistant.service.TripPlanService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/viagem")
+public class TripPlanController {
+
+    private final TripPlanService tripPlanService;
+
+    @Autowired
+    public TripPlanController(TripPlanService tripPlanService) {
+        this.tripPlanService = tripPlanService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<TripPlanResponse>> planTrip(@RequestBody TripPlanRequest request) {
+        return tripPlanService.planTrip(request)
+                .map(ResponseEntity::ok);
+    }
+}
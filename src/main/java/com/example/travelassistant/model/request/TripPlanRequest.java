@@ -0,0 +1,18 @@
+package com.example.travelassistant.model.request;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class TripPlanRequest {
+    private String city;
+    private String country;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String travelPurpose; // business, leisure, adventure, etc.
+    private String userPreferences; // preferences for packing, e.g., "pack light", "formal attire needed"
+    private String interests; // museums, nature, food, etc.
+    private Integer budget; // 1-5 scale (1: low, 5: high)
+    private String travelStyle; // relaxed, intensive, cultural, etc.
+}
@@ -0,0 +1,28 @@
+package com.example.travelassistant.model.response;
+
+import lombok.Data;
+
+/**
+ * Resultado de um item de uma requisição em lote. {@code index} é a posição do item no array enviado;
+ * apenas um de {@code result} e {@code error} é preenchido.
+ */
+@Data
+public class BatchItemResponse<T> {
+    private int index;
+    private T result;
+    private String error;
+
+    public static <T> BatchItemResponse<T> success(int index, T result) {
+        BatchItemResponse<T> item = new BatchItemResponse<>();
+        item.setIndex(index);
+        item.setResult(result);
+        return item;
+    }
+
+    public static <T> BatchItemResponse<T> failure(int index, String error) {
+        BatchItemResponse<T> item = new BatchItemResponse<>();
+        item.setIndex(index);
+        item.setError(error);
+        return item;
+    }
+}
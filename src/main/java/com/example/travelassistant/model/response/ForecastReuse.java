@@ -0,0 +1,22 @@
+package com.example.travelassistant.model.response;
+
+/**
+ * Respostas que informam ao cliente quando a previsão usada foi reaproveitada de uma localização vizinha
+ * (reusedFrom e reusedDistanceKm, ausentes no caso normal).
+ */
+public interface ForecastReuse {
+
+    void setReusedFrom(String reusedFrom);
+
+    void setReusedDistanceKm(Double reusedDistanceKm);
+
+    /**
+     * Copia a marca de reuso da previsão usada para gerar a resposta.
+     */
+    default void markReusedForecast(WeatherResponse weatherResponse) {
+        if (weatherResponse != null && weatherResponse.getReusedFrom() != null) {
+            setReusedFrom(weatherResponse.getReusedFrom());
+            setReusedDistanceKm(weatherResponse.getReusedDistanceKm());
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.travelassistant.model.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import java.util.List;
 
 @Data
-public class ItineraryResponse {
+public class ItineraryResponse implements ForecastReuse {
     private String destination;
     private String travelPeriod;
     private WeatherSummary weatherSummary;
@@ -13,6 +15,14 @@ public class ItineraryResponse {
     private String localCuisineRecommendations;
     private String transportationTips;
 
+    // Preenchidos pelo serviço quando a previsão veio de uma localização vizinha; fora do schema pedido ao Gemini
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String reusedFrom;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double reusedDistanceKm;
+
     @Data
     public static class WeatherSummary {
         private String description;
@@ -0,0 +1,9 @@
+package com.example.travelassistant.model.response;
+
+import lombok.Data;
+
+@Data
+public class TripPlanResponse {
+    private BaggageRecommendationResponse baggage;
+    private ItineraryResponse itinerary;
+}
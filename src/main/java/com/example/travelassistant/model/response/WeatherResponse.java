@@ -1,15 +1,23 @@
 package com.example.travelassistant.model.response;
 
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
 import lombok.Data;
 import java.util.List;
 
+// A WeatherAPI usa snake_case (ex.: mintemp_c, tz_id)
 @Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public class WeatherResponse {
     private Location location;
     private Current current;
     private Forecast forecast;
+    // Preenchidos quando a previsão foi reaproveitada de uma localização vizinha já em cache
+    private String reusedFrom;
+    private Double reusedDistanceKm;
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class Location {
         private String name;
         private String region;
@@ -22,6 +30,7 @@ public class WeatherResponse {
     }
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class Current {
         private long lastUpdatedEpoch;
         private String lastUpdated;
@@ -49,6 +58,7 @@ public class WeatherResponse {
     }
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class Condition {
         private String text;
         private String icon;
@@ -56,11 +66,13 @@ public class WeatherResponse {
     }
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class Forecast {
         private List<ForecastDay> forecastday;
     }
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class ForecastDay {
         private String date;
         private long dateEpoch;
@@ -70,6 +82,7 @@ public class WeatherResponse {
     }
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class Day {
         private double maxtempC;
         private double maxtempF;
@@ -94,6 +107,7 @@ public class WeatherResponse {
     }
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class Astro {
         private String sunrise;
         private String sunset;
@@ -106,6 +120,7 @@ public class WeatherResponse {
     }
 
     @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class Hour {
         private long timeEpoch;
         private String time;
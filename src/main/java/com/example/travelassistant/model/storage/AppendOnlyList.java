@@ -0,0 +1,80 @@
+package com.example.travelassistant.model.storage;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Lista somente de inclusão, organizada em blocos, com leituras sem bloqueio.
+ * Admite um único escritor por vez (a sincronização fica a cargo de quem chama {@link #add}).
+ * {@link #snapshot()} custa O(1) e devolve uma visão imutável dos itens publicados até aquele momento.
+ */
+class AppendOnlyList<T> {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Diretórios publicados nunca são alterados; qualquer mudança de estrutura gera um novo diretório
+    private volatile Object[][] chunks = new Object[][] { new Object[INITIAL_CAPACITY] };
+    private volatile int size;
+
+    void add(T item) {
+        int index = size;
+        int chunkIndex = index >>> CHUNK_BITS;
+        int offset = index & CHUNK_MASK;
+        Object[][] directory = chunks;
+
+        if (chunkIndex == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length + 1);
+            directory[chunkIndex] = new Object[CHUNK_SIZE];
+            directory[chunkIndex][offset] = item;
+            chunks = directory;
+        } else if (offset == directory[chunkIndex].length) {
+            // Apenas o primeiro bloco cresce gradualmente, para não desperdiçar memória em índices pequenos
+            directory = directory.clone();
+            directory[chunkIndex] = Arrays.copyOf(directory[chunkIndex], Math.min(offset * 2, CHUNK_SIZE));
+            directory[chunkIndex][offset] = item;
+            chunks = directory;
+        } else {
+            directory[chunkIndex][offset] = item;
+        }
+
+        size = index + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<T> snapshot() {
+        int currentSize = size;
+        return new Snapshot<>(chunks, currentSize);
+    }
+
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] chunks;
+        private final int size;
+
+        Snapshot(Object[][] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Índice: " + index + ", tamanho: " + size);
+            }
+            return (T) chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -1,36 +1,247 @@
 package com.example.travelassistant.model.storage;
 
+import com.example.travelassistant.service.support.LocationCanonicalizer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import java.util.ArrayList;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Repositório em memória seguro para acesso concorrente.
+ * As gravações são serializadas e mantêm índices secundários por destino e tipo de requisição;
+ * as leituras não bloqueiam e devolvem snapshots imutáveis, com custo proporcional ao resultado.
+ * O índice por destino é gravado pela forma dobrada do destino, que não muda, e consultado pela chave canônica do
+ * {@link LocationCanonicalizer} no momento da leitura: grafias diferentes do mesmo lugar ("São Paulo, Brasil" e
+ * "sao paulo, BR") ficam juntas, inclusive as gravadas antes de a localização ser aprendida ou recuperadas do log.
+ * Com storage.log.enabled=true, cada consulta também é gravada no {@link TravelQueryLog} e os índices
+ * são reconstruídos a partir dele na inicialização.
+ * O timestamp de cada consulta é atribuído por {@link #save(TravelQuery)} sob o lock de escrita e nunca recua em
+ * relação à consulta anterior (relógio ajustado para trás, fim do horário de verão), então a ordem de gravação é
+ * também a ordem de timestamp.
+ */
 @Component
 public class QueryRepository {
-    private final List<TravelQuery> queries = new ArrayList<>();
 
+    private static final Logger log = LoggerFactory.getLogger(QueryRepository.class);
+    private final AppendOnlyList<TravelQuery> queries = new AppendOnlyList<>();
+    private final Map<String, AppendOnlyList<TravelQuery>> byDestination = new ConcurrentHashMap<>();
+    private final Map<String, AppendOnlyList<TravelQuery>> byRequestType = new ConcurrentHashMap<>();
+    private final Map<String, AppendOnlyList<String>> destinationsByRequestType = new ConcurrentHashMap<>();
+    private final Set<String> indexedDestinations = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> sequenceById = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final TravelQueryLog queryLog;
+    private final LocationCanonicalizer canonicalizer;
+    private final Supplier<LocalDateTime> clock;
+    private LocalDateTime lastTimestamp = LocalDateTime.MIN;
+
+    @Autowired
+    public QueryRepository(TravelQueryLog queryLog, LocationCanonicalizer canonicalizer) {
+        this(queryLog, canonicalizer, LocalDateTime::now);
+    }
+
+    QueryRepository(TravelQueryLog queryLog, LocationCanonicalizer canonicalizer, Supplier<LocalDateTime> clock) {
+        this.queryLog = queryLog;
+        this.canonicalizer = canonicalizer;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void recover() {
+        if (!queryLog.isEnabled()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<TravelQuery> recovered = queryLog.open();
+
+        writeLock.lock();
+        try {
+            for (TravelQuery query : recovered) {
+                // Registros antigos podem ter sido gravados fora de ordem; a ordem do log prevalece
+                query.setTimestamp(nextTimestamp(query.getTimestamp()));
+                index(query);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        log.info("Histórico recuperado: {} consultas em {} ms", recovered.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Grava a consulta com o timestamp atual, substituindo o que vier preenchido.
+     * O registro do log é codificado fora do lock com um timestamp provisório e só é recodificado se, sob o lock,
+     * o timestamp precisar avançar para não ficar antes do da consulta anterior.
+     */
     public TravelQuery save(TravelQuery query) {
         if (query.getId() == null) {
             query.setId(UUID.randomUUID().toString());
         }
-        queries.add(query);
+
+        LocalDateTime provisional = clock.get();
+        query.setTimestamp(provisional);
+        byte[] record = queryLog.isEnabled() ? queryLog.encode(query) : null;
+
+        writeLock.lock();
+        try {
+            LocalDateTime timestamp = nextTimestamp(provisional);
+            if (!timestamp.equals(provisional)) {
+                query.setTimestamp(timestamp);
+                if (record != null) {
+                    record = queryLog.encode(query);
+                }
+            }
+            if (record != null) {
+                queryLog.append(record);
+            }
+            index(query);
+        } finally {
+            writeLock.unlock();
+        }
         return query;
     }
 
+    // Chamado sob o lock de escrita
+    private LocalDateTime nextTimestamp(LocalDateTime candidate) {
+        if (candidate != null && candidate.isAfter(lastTimestamp)) {
+            lastTimestamp = candidate;
+        }
+        return lastTimestamp;
+    }
+
+    private void index(TravelQuery query) {
+        sequenceById.put(query.getId(), queries.size());
+        queries.add(query);
+
+        String destination = LocationCanonicalizer.fold(query.getDestination());
+        String requestType = requestTypeKey(query.getRequestType());
+
+        byDestination.computeIfAbsent(destination, key -> new AppendOnlyList<>()).add(query);
+        byRequestType.computeIfAbsent(requestType, key -> new AppendOnlyList<>()).add(query);
+
+        if (indexedDestinations.add(requestType + "|" + destination)) {
+            destinationsByRequestType.computeIfAbsent(requestType, key -> new AppendOnlyList<>())
+                    .add(query.getDestination());
+        }
+    }
+
     public List<TravelQuery> findAll() {
-        return new ArrayList<>(queries);
+        return queries.snapshot();
     }
 
+    /**
+     * Consultas ao destino, em qualquer grafia que resolva hoje para a mesma chave canônica, na ordem de gravação.
+     */
     public List<TravelQuery> findByDestination(String destination) {
-        return queries.stream()
-                .filter(q -> q.getDestination().equalsIgnoreCase(destination))
-                .collect(Collectors.toList());
+        List<List<TravelQuery>> buckets = canonicalizer.aliases(canonicalizer.canonicalKey(destination)).stream()
+                .map(byDestination::get)
+                .filter(Objects::nonNull)
+                .map(AppendOnlyList::snapshot)
+                .filter(entries -> !entries.isEmpty())
+                .toList();
+
+        if (buckets.size() <= 1) {
+            return buckets.isEmpty() ? List.of() : buckets.get(0);
+        }
+        return buckets.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingInt(query -> sequenceById.get(query.getId())))
+                .toList();
     }
 
     public List<TravelQuery> findByRequestType(String requestType) {
-        return queries.stream()
-                .filter(q -> q.getRequestType().equalsIgnoreCase(requestType))
-                .collect(Collectors.toList());
+        return snapshotOf(byRequestType, requestType);
+    }
+
+    /**
+     * Destinos distintos já consultados para o tipo de requisição, na ordem da primeira consulta.
+     * As grafias são agrupadas pela chave canônica atual, e cada lugar aparece com a primeira grafia usada.
+     */
+    public List<String> findDestinationsByRequestType(String requestType) {
+        Map<String, String> destinations = new LinkedHashMap<>();
+        for (String destination : snapshotOf(destinationsByRequestType, requestType)) {
+            destinations.putIfAbsent(canonicalizer.canonicalKey(destination), destination);
+        }
+        return List.copyOf(destinations.values());
+    }
+
+    /**
+     * Consultas gravadas a partir de {@code from}, na ordem de gravação.
+     * Os timestamps atribuídos por {@link #save(TravelQuery)} não recuam, então o início é localizado por busca binária.
+     */
+    public List<TravelQuery> findSince(LocalDateTime from) {
+        List<TravelQuery> entries = queries.snapshot();
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).getTimestamp().isBefore(from)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return entries.subList(low, entries.size());
+    }
+
+    /**
+     * Percorre, de forma preguiçosa, as consultas do tipo informado gravadas depois da consulta {@code afterId}
+     * e com timestamp dentro do intervalo [from, to] (limites opcionais).
+     * O ponto de partida é localizado por busca binária, então o custo é proporcional ao que for consumido.
+     */
+    public Stream<TravelQuery> streamByRequestType(String requestType, String afterId, LocalDateTime from, LocalDateTime to) {
+        List<TravelQuery> entries = findByRequestType(requestType);
+        int start = 0;
+
+        if (afterId != null) {
+            Integer cursor = sequenceById.get(afterId);
+            if (cursor == null) {
+                throw new IllegalArgumentException("Cursor desconhecido: " + afterId);
+            }
+            start = firstAfter(entries, cursor);
+        }
+
+        return entries.subList(start, entries.size()).stream()
+                .filter(query -> from == null || !query.getTimestamp().isBefore(from))
+                .filter(query -> to == null || !query.getTimestamp().isAfter(to));
+    }
+
+    private int firstAfter(List<TravelQuery> entries, int sequence) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sequenceById.get(entries.get(mid).getId()) <= sequence) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <T> List<T> snapshotOf(Map<String, AppendOnlyList<T>> index, String key) {
+        AppendOnlyList<T> entries = index.get(requestTypeKey(key));
+        return entries == null ? List.of() : entries.snapshot();
+    }
+
+    private static String requestTypeKey(String requestType) {
+        return requestType == null ? "" : requestType.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -5,11 +5,17 @@ import java.time.LocalDateTime;
 
 @Data
 public class TravelQuery {
+
+    // Tipos de requisição gravados pelos serviços e consultados pelos endpoints de histórico
+    public static final String BAGGAGE = "baggage";
+    public static final String ITINERARY = "itinerary";
+    public static final String TRIP = "trip";
+
     private String id;
     private String destination;
     private String startDate;
     private String endDate;
-    private String requestType; // "baggage" or "itinerary"
+    private String requestType; // BAGGAGE, ITINERARY ou TRIP
     private String requestJson;
     private String responseJson;
     private LocalDateTime timestamp;
@@ -0,0 +1,269 @@
+package com.example.travelassistant.model.storage;
+
+import com.example.travelassistant.config.AppConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Log somente de inclusão para as consultas, gravado em segmentos mapeados em memória.
+ * Cada registro tem o formato [tamanho][CRC32C][JSON]; um tamanho zero marca o fim dos dados do segmento.
+ * O fsync é feito em lote, periodicamente, por uma thread dedicada.
+ * Na abertura, um registro truncado ou com CRC inválido no fim do último segmento é tratado como uma gravação
+ * interrompida e apagado. Nos segmentos anteriores, que já estavam completos, o segmento é mantido em disco como está,
+ * os registros seguintes não são carregados e o problema é registrado como erro e contado em
+ * storage.log.corruptions (action = truncated ou skipped).
+ */
+@Component
+public class TravelQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(TravelQueryLog.class);
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int CLEAR_CHUNK_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncIntervalMs;
+    private final ObjectMapper objectMapper;
+    private final Counter truncated;
+    private final Counter skipped;
+
+    private ScheduledExecutorService fsyncExecutor;
+    private FileChannel channel;
+    private volatile MappedByteBuffer segment;
+    private long segmentNumber;
+    private volatile boolean dirty;
+
+    @Autowired
+    public TravelQueryLog(AppConfig appConfig, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = appConfig.isStorageLogEnabled();
+        this.directory = Paths.get(appConfig.getStorageLogDirectory());
+        this.segmentSize = appConfig.getStorageLogSegmentSizeMb() * 1024 * 1024;
+        this.fsyncIntervalMs = appConfig.getStorageLogFsyncIntervalMs();
+        this.objectMapper = objectMapper;
+        this.truncated = corruptions(meterRegistry, "truncated");
+        this.skipped = corruptions(meterRegistry, "skipped");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Lê todos os segmentos existentes (em paralelo, um por thread) e prepara o último para novas gravações.
+     * Registros truncados ou com CRC inválido encerram a leitura do segmento; só o fim do último segmento é apagado.
+     */
+    public List<TravelQuery> open() {
+        try {
+            Files.createDirectories(directory);
+
+            List<Path> segments;
+            try (Stream<Path> files = Files.list(directory)) {
+                segments = files
+                        .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+
+            List<SegmentContent> contents = segments.parallelStream()
+                    .map(this::readSegment)
+                    .toList();
+
+            List<TravelQuery> queries = new ArrayList<>();
+            for (int i = 0; i < contents.size(); i++) {
+                SegmentContent content = contents.get(i);
+                queries.addAll(content.queries);
+                if (content.corrupted && i < contents.size() - 1) {
+                    log.error("Segmento {} corrompido na posição {}: {} consultas lidas, o restante do segmento foi ignorado",
+                            segments.get(i), content.end, content.queries.size());
+                    skipped.increment();
+                }
+            }
+
+            if (segments.isEmpty()) {
+                openSegment(0, 0);
+            } else {
+                Path last = segments.get(segments.size() - 1);
+                SegmentContent lastContent = contents.get(contents.size() - 1);
+                openSegment(segmentNumberOf(last), lastContent.end);
+                if (lastContent.corrupted) {
+                    log.warn("Fim do segmento {} descartado a partir da posição {}", last, lastContent.end);
+                    clearFrom(lastContent.end);
+                    truncated.increment();
+                }
+            }
+
+            fsyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "travel-query-log-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncExecutor.scheduleWithFixedDelay(this::flush, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+
+            return queries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao abrir o log de consultas em " + directory, e);
+        }
+    }
+
+    /**
+     * Serializa a consulta fora da seção crítica de gravação.
+     */
+    public byte[] encode(TravelQuery query) {
+        try {
+            return objectMapper.writeValueAsBytes(query);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao serializar consulta " + query.getId(), e);
+        }
+    }
+
+    /**
+     * Grava um registro já serializado. Deve ser chamado por um único escritor por vez.
+     */
+    public void append(byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Registro de " + payload.length + " bytes excede o tamanho do segmento");
+        }
+
+        try {
+            // Reserva espaço para o marcador de fim (tamanho zero) após o registro
+            if (segment.remaining() < recordSize + Integer.BYTES) {
+                segment.force();
+                channel.close();
+                openSegment(segmentNumber + 1, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao criar novo segmento do log de consultas", e);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        segment.putInt(payload.length);
+        segment.putInt((int) crc.getValue());
+        segment.put(payload);
+        dirty = true;
+    }
+
+    public void flush() {
+        if (dirty && segment != null) {
+            dirty = false;
+            segment.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (fsyncExecutor != null) {
+            fsyncExecutor.shutdown();
+        }
+        if (segment != null) {
+            segment.force();
+            channel.close();
+        }
+    }
+
+    private void openSegment(long number, int position) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.position(position);
+        segmentNumber = number;
+    }
+
+    private void clearFrom(int position) {
+        byte[] zeros = new byte[CLEAR_CHUNK_SIZE];
+        for (int i = position; i < segmentSize; i += zeros.length) {
+            segment.put(i, zeros, 0, Math.min(zeros.length, segmentSize - i));
+        }
+        segment.force();
+    }
+
+    private SegmentContent readSegment(Path path) {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            List<TravelQuery> queries = new ArrayList<>();
+            CRC32C crc = new CRC32C();
+
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+
+                if (length == 0) {
+                    return new SegmentContent(queries, start, false);
+                }
+                if (length < 0 || length > buffer.remaining()) {
+                    log.warn("Registro truncado em {} na posição {}", path, start);
+                    return new SegmentContent(queries, start, true);
+                }
+
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("CRC inválido em {} na posição {}", path, start);
+                    return new SegmentContent(queries, start, true);
+                }
+
+                queries.add(objectMapper.readValue(payload, TravelQuery.class));
+            }
+
+            return new SegmentContent(queries, buffer.position(), false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler segmento " + path, e);
+        }
+    }
+
+    private static Counter corruptions(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("storage.log.corruptions")
+                .description("Registros inválidos encontrados ao abrir o log de consultas")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    private static long segmentNumberOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class SegmentContent {
+        private final List<TravelQuery> queries;
+        private final int end;
+        private final boolean corrupted;
+
+        SegmentContent(List<TravelQuery> queries, int end, boolean corrupted) {
+            this.queries = queries;
+            this.end = end;
+            this.corrupted = corrupted;
+        }
+    }
+}
@@ -1,167 +1,186 @@
 package com.example.travelassistant.service;
 
+import com.example.travelassistant.config.AppConfig;
 import com.example.travelassistant.model.request.TravelInfoRequest;
 import com.example.travelassistant.model.response.BaggageRecommendationResponse;
+import com.example.travelassistant.model.response.BatchItemResponse;
 import com.example.travelassistant.model.response.WeatherResponse;
 import com.example.travelassistant.model.storage.QueryRepository;
 import com.example.travelassistant.model.storage.TravelQuery;
+import com.example.travelassistant.service.support.ForecastPromptEncoder;
+import com.example.travelassistant.service.support.PipelineMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class BaggageService {
 
+    private static final Logger log = LoggerFactory.getLogger(BaggageService.class);
+
+    private static final String ENDPOINT = "bagagem";
+
+    // Campos da recomendação de bagagem, também usados nas instruções do plano de viagem
+    static final String BAGGAGE_FIELDS =
+            "1. destination (destino)\n"
+                    + "2. travelPeriod (período da viagem)\n"
+                    + "3. weatherSummary - com description, averageTemperature, minTemperature, maxTemperature, precipitation, humidity, wind\n"
+                    + "4. essentialClothing - lista de itens com type, quantity e description\n"
+                    + "5. accessories - lista de acessórios recomendados\n"
+                    + "6. toiletries - lista de itens de higiene pessoal\n"
+                    + "7. electronics - lista de eletrônicos recomendados\n"
+                    + "8. documents - lista de documentos necessários\n"
+                    + "9. specialRecommendations - recomendações específicas para o destino e clima\n"
+                    + "10. packingTips - dicas gerais para fazer a mala\n";
+
+    // Parte fixa do prompt (instruções e formato da resposta), enviada como systemInstruction
+    static final String BAGGAGE_INSTRUCTIONS =
+            "Você é um assistente de viagem especializado em recomendações de bagagem baseadas no clima. "
+                    + "Gere uma recomendação de bagagem detalhada para a viagem descrita na mensagem, "
+                    + "no formato JSON com os seguintes campos:\n"
+                    + BAGGAGE_FIELDS + "\n"
+                    + GeminiAIService.JSON_ONLY_INSTRUCTION;
+
     private final WeatherService weatherService;
     private final GeminiAIService geminiAIService;
     private final QueryRepository queryRepository;
     private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+    private final AppConfig appConfig;
+    private final PipelineMetrics metrics;
+    private final ForecastPromptEncoder forecastEncoder;
 
     @Autowired
     public BaggageService(
             WeatherService weatherService,
             GeminiAIService geminiAIService,
             QueryRepository queryRepository,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            Scheduler blockingScheduler,
+            AppConfig appConfig,
+            PipelineMetrics metrics,
+            ForecastPromptEncoder forecastEncoder) {
         this.weatherService = weatherService;
         this.geminiAIService = geminiAIService;
         this.queryRepository = queryRepository;
         this.objectMapper = objectMapper;
+        this.blockingScheduler = blockingScheduler;
+        this.appConfig = appConfig;
+        this.metrics = metrics;
+        this.forecastEncoder = forecastEncoder;
     }
 
-    public BaggageRecommendationResponse getBaggageRecommendation(TravelInfoRequest request) {
-        try {
+    public Mono<BaggageRecommendationResponse> getBaggageRecommendation(TravelInfoRequest request) {
+        return Mono.defer(() -> {
             // Get weather forecast for the destination
-            String location = request.getCity() + "," + request.getCountry();
-            long daysBetween = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) + 1;
-            int days = (int) Math.min(daysBetween, 14); // API has a limit of 14 days
-
-            WeatherResponse weatherResponse = weatherService.getForecast(location, days);
-
-            // Build prompt for Gemini AI
-            String prompt = buildBaggagePrompt(request, weatherResponse);
+            return forecast(location(request), forecastDays(request))
+                    .flatMap(weatherResponse -> recommend(request, weatherResponse));
+        }).onErrorMap(e -> new RuntimeException("Erro ao gerar recomendação de bagagem: " + e.getMessage(), e));
+    }
 
-            // Get recommendation from Gemini AI
-            String geminiResponse = geminiAIService.generateContent(prompt);
+    /**
+     * Gera recomendações para várias viagens, buscando a previsão uma única vez por destino
+     * e emitindo cada resultado assim que fica pronto (ver {@link ForecastBatch}).
+     */
+    public Flux<BatchItemResponse<BaggageRecommendationResponse>> getBaggageRecommendations(List<TravelInfoRequest> requests) {
+        return new ForecastBatch<TravelInfoRequest, BaggageRecommendationResponse>(
+                this::location, weatherService::locationKey, this::forecastDays, this::forecast, this::recommend)
+                .run(requests, appConfig.getBatchMaxSize(), appConfig.getBatchMaxConcurrency());
+    }
 
-            // Parse Gemini response to structured format
-            BaggageRecommendationResponse response;
+    private Mono<WeatherResponse> forecast(String location, int days) {
+        return metrics.time(PipelineMetrics.STAGE_FORECAST, ENDPOINT, weatherService.getForecast(location, days));
+    }
 
-            if ("FALLBACK_MODE".equals(geminiResponse)) {
-                // Se a API Gemini falhou, use o modo fallback
-                System.out.println("Usando modo fallback para recomendação de bagagem");
-                response = geminiAIService.generateFallbackBaggageRecommendation(request, weatherResponse);
-            } else {
-                // Parse da resposta da API Gemini
-                response = parseGeminiResponse(geminiResponse, request, weatherResponse);
-            }
+    private Mono<BaggageRecommendationResponse> recommend(TravelInfoRequest request, WeatherResponse weatherResponse) {
+        // Build prompt for Gemini AI
+        String prompt = metrics.time(PipelineMetrics.STAGE_PROMPT, ENDPOINT, () -> buildBaggagePrompt(request, weatherResponse));
+
+        // O fallback é calculado em paralelo, para estar pronto caso o Gemini estoure o prazo
+        Mono<BaggageRecommendationResponse> fallback = Mono
+                .fromCallable(() -> metrics.time(PipelineMetrics.STAGE_FALLBACK, ENDPOINT,
+                        () -> geminiAIService.generateFallbackBaggageRecommendation(request, weatherResponse)))
+                .subscribeOn(Schedulers.parallel());
+
+        // Get recommendation from Gemini AI, já no formato estruturado (vazia quando é preciso usar o fallback)
+        Duration deadline = Duration.ofMillis(appConfig.getGeminiDeadlineBaggageMs());
+        Mono<Optional<BaggageRecommendationResponse>> geminiResponse = metrics
+                .time(PipelineMetrics.STAGE_GEMINI, ENDPOINT, geminiAIService.generateObject(
+                        BAGGAGE_INSTRUCTIONS, prompt, BaggageRecommendationResponse.class, deadline))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+
+        return Mono.zip(geminiResponse, fallback)
+                .map(result -> toRecommendation(result.getT1(), result.getT2()))
+                .doOnNext(response -> response.markReusedForecast(weatherResponse))
+                // Save query to repository
+                .flatMap(response -> metrics.time(PipelineMetrics.STAGE_SAVE, ENDPOINT,
+                                Mono.fromRunnable(() -> saveQuery(request, response))
+                                        .subscribeOn(blockingScheduler))
+                        .thenReturn(response));
+    }
 
-            // Save query to repository
-            saveQuery(request, response, "bagagem");
+    private String location(TravelInfoRequest request) {
+        return WeatherService.location(request.getCity(), request.getCountry());
+    }
 
-            return response;
+    private int forecastDays(TravelInfoRequest request) {
+        return WeatherService.forecastDays(request.getStartDate(), request.getEndDate());
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao gerar recomendação de bagagem: " + e.getMessage(), e);
+    private BaggageRecommendationResponse toRecommendation(Optional<BaggageRecommendationResponse> geminiResponse,
+                                                           BaggageRecommendationResponse fallback) {
+        if (geminiResponse.isEmpty()) {
+            // Se a API Gemini falhou, não respondeu no prazo ou gerou um JSON inválido, use o modo fallback
+            log.warn("Usando modo fallback para recomendação de bagagem");
+            metrics.recordFallback(ENDPOINT, "gemini");
+            return fallback;
         }
+        return geminiResponse.get();
     }
 
-    private String buildBaggagePrompt(TravelInfoRequest request, WeatherResponse weatherResponse) {
+    /**
+     * Parte variável do prompt (viagem e previsão); as instruções vão em {@link #BAGGAGE_INSTRUCTIONS}.
+     */
+    String buildBaggagePrompt(TravelInfoRequest request, WeatherResponse weatherResponse) {
         StringBuilder prompt = new StringBuilder();
 
-        prompt.append("Você é um assistente de viagem especializado em recomendações de bagagem baseadas no clima. ");
-        prompt.append("Por favor, gere uma recomendação de bagagem detalhada para uma viagem com as seguintes informações:\n\n");
-
         prompt.append("Destino: ").append(request.getCity()).append(", ").append(request.getCountry()).append("\n");
         prompt.append("Período: ").append(request.getStartDate()).append(" a ").append(request.getEndDate()).append("\n");
         prompt.append("Propósito da viagem: ").append(request.getTravelPurpose()).append("\n");
         prompt.append("Preferências do usuário: ").append(request.getUserPreferences()).append("\n\n");
 
-        prompt.append("Dados meteorológicos para o período:\n");
-        if (weatherResponse.getForecast() != null && weatherResponse.getForecast().getForecastday() != null) {
-            for (WeatherResponse.ForecastDay day : weatherResponse.getForecast().getForecastday()) {
-                prompt.append("- ").append(day.getDate()).append(": ");
-                prompt.append("Temperatura mín: ").append(day.getDay().getMintempC()).append("°C, ");
-                prompt.append("máx: ").append(day.getDay().getMaxtempC()).append("°C. ");
-                prompt.append("Condição: ").append(day.getDay().getCondition().getText()).append(". ");
-                prompt.append("Chance de chuva: ").append(day.getDay().getDailyChanceOfRain()).append("%\n");
-            }
-        }
-
-        prompt.append("\nPor favor, forneça uma recomendação de bagagem detalhada no formato JSON com os seguintes campos:\n");
-        prompt.append("1. destination (destino)\n");
-        prompt.append("2. travelPeriod (período da viagem)\n");
-        prompt.append("3. weatherSummary - com description, averageTemperature, minTemperature, maxTemperature, precipitation, humidity, wind\n");
-        prompt.append("4. essentialClothing - lista de itens com type, quantity e description\n");
-        prompt.append("5. accessories - lista de acessórios recomendados\n");
-        prompt.append("6. toiletries - lista de itens de higiene pessoal\n");
-        prompt.append("7. electronics - lista de eletrônicos recomendados\n");
-        prompt.append("8. documents - lista de documentos necessários\n");
-        prompt.append("9. specialRecommendations - recomendações específicas para o destino e clima\n");
-        prompt.append("10. packingTips - dicas gerais para fazer a mala\n\n");
-
-        prompt.append("Importante: retorne SOMENTE o JSON, sem explicações adicionais. O JSON deve estar bem formatado e válido.");
+        forecastEncoder.append(prompt, weatherResponse);
 
         return prompt.toString();
     }
 
-    private BaggageRecommendationResponse parseGeminiResponse(String geminiResponse, TravelInfoRequest request, WeatherResponse weatherResponse) {
-        try {
-            // Tentativa de extrair o JSON da resposta
-            String jsonContent = extractJsonFromString(geminiResponse);
-
-            // Parse do JSON para o objeto de resposta
-            return objectMapper.readValue(jsonContent, BaggageRecommendationResponse.class);
-
-        } catch (Exception e) {
-            // Fallback: criar uma resposta manual caso o parsing falhe
-            System.out.println("Erro ao fazer parsing da resposta do Gemini: " + e.getMessage());
-            return geminiAIService.generateFallbackBaggageRecommendation(request, weatherResponse);
-        }
-    }
-
-    private String extractJsonFromString(String text) {
-        // Remover qualquer markup de código, se presente
-        String cleanText = text;
-        if (text.contains("```json")) {
-            cleanText = text.substring(text.indexOf("```json") + 7);
-            if (cleanText.contains("```")) {
-                cleanText = cleanText.substring(0, cleanText.lastIndexOf("```"));
-            }
-        }
-
-        // Encontrar onde começa e termina o JSON na resposta limpa
-        int startIdx = cleanText.indexOf('{');
-        int endIdx = cleanText.lastIndexOf('}') + 1;
-
-        if (startIdx >= 0 && endIdx > startIdx) {
-            return cleanText.substring(startIdx, endIdx);
-        }
-
-        throw new IllegalArgumentException("Não foi possível extrair JSON válido da resposta");
-    }
-
-    private void saveQuery(TravelInfoRequest request, BaggageRecommendationResponse response, String requestType) {
+    private void saveQuery(TravelInfoRequest request, BaggageRecommendationResponse response) {
         try {
             TravelQuery query = new TravelQuery();
             query.setDestination(request.getCity() + ", " + request.getCountry());
             query.setStartDate(request.getStartDate().format(DateTimeFormatter.ISO_DATE));
             query.setEndDate(request.getEndDate().format(DateTimeFormatter.ISO_DATE));
-            query.setRequestType(requestType);
+            query.setRequestType(TravelQuery.BAGGAGE);
             query.setRequestJson(objectMapper.writeValueAsString(request));
             query.setResponseJson(objectMapper.writeValueAsString(response));
-            query.setTimestamp(LocalDateTime.now());
 
             queryRepository.save(query);
         } catch (Exception e) {
             // Log error but don't fail the request
-            System.err.println("Erro ao salvar consulta: " + e.getMessage());
+            log.error("Erro ao salvar consulta: {}", e.getMessage(), e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.example.travelassistant.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser incremental para o texto JSON de um roteiro gerado em streaming.
+ * Recebe os trechos na ordem em que chegam e devolve o JSON de cada item de "dayPlans"
+ * assim que o objeto correspondente é fechado, sem esperar o restante da resposta.
+ */
+class DayPlanStreamParser {
+
+    private static final String DAY_PLANS_KEY = "dayPlans";
+
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private int stringStart;
+    private String lastString;
+    private String currentKey;
+    private int dayPlansDepth = -1;
+    private int objectStart = -1;
+
+    List<String> feed(String chunk) {
+        text.append(chunk);
+        List<String> completed = new ArrayList<>();
+
+        for (; position < text.length(); position++) {
+            char c = text.charAt(position);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    lastString = text.substring(stringStart + 1, position);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    stringStart = position;
+                }
+                case ':' -> currentKey = lastString;
+                case '[' -> {
+                    // "dayPlans" precisa ser um campo do objeto raiz
+                    if (dayPlansDepth == -1 && depth == 1 && DAY_PLANS_KEY.equals(currentKey)) {
+                        dayPlansDepth = depth + 1;
+                    }
+                    depth++;
+                }
+                case '{' -> {
+                    depth++;
+                    if (dayPlansDepth > 0 && depth == dayPlansDepth + 1) {
+                        objectStart = position;
+                    }
+                }
+                case '}' -> {
+                    if (dayPlansDepth > 0 && depth == dayPlansDepth + 1 && objectStart >= 0) {
+                        completed.add(text.substring(objectStart, position + 1));
+                        objectStart = -1;
+                    }
+                    depth--;
+                }
+                case ']' -> {
+                    if (depth == dayPlansDepth) {
+                        // Lista encerrada: nenhum outro objeto será tratado como plano diário
+                        dayPlansDepth = -2;
+                    }
+                    depth--;
+                }
+                default -> {
+                }
+            }
+        }
+
+        return completed;
+    }
+
+    /**
+     * Texto completo recebido até agora.
+     */
+    String getText() {
+        return text.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.exception.ApiException;
+import com.example.travelassistant.model.response.BatchItemResponse;
+import com.example.travelassistant.model.response.WeatherResponse;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Execução de requisições em lote agrupadas por destino.
+ * Cada destino distinto tem a previsão buscada uma única vez (com a maior janela de dias do grupo), e cada item
+ * recebe apenas os dias de que precisa. A geração roda com paralelismo limitado e os resultados são emitidos
+ * na ordem em que ficam prontos; a falha de um item não interrompe os demais.
+ */
+final class ForecastBatch<R, T> {
+
+    private final Function<R, String> location;
+    private final Function<String, String> locationKey;
+    private final ToIntFunction<R> days;
+    private final BiFunction<String, Integer, Mono<WeatherResponse>> forecast;
+    private final BiFunction<R, WeatherResponse, Mono<T>> generate;
+
+    ForecastBatch(Function<R, String> location, Function<String, String> locationKey, ToIntFunction<R> days,
+                  BiFunction<String, Integer, Mono<WeatherResponse>> forecast,
+                  BiFunction<R, WeatherResponse, Mono<T>> generate) {
+        this.location = location;
+        this.locationKey = locationKey;
+        this.days = days;
+        this.forecast = forecast;
+        this.generate = generate;
+    }
+
+    /**
+     * @throws ApiException (400) se o lote estiver vazio ou tiver mais de {@code maxSize} itens
+     */
+    Flux<BatchItemResponse<T>> run(List<R> requests, int maxSize, int concurrency) {
+        if (requests == null || requests.isEmpty() || requests.size() > maxSize) {
+            throw new ApiException("O lote deve ter entre 1 e " + maxSize + " itens", HttpStatus.BAD_REQUEST);
+        }
+
+        return Flux.defer(() -> {
+            Map<String, List<Item<R>>> groups = new LinkedHashMap<>();
+            List<BatchItemResponse<T>> invalid = new ArrayList<>();
+
+            for (int i = 0; i < requests.size(); i++) {
+                R request = requests.get(i);
+                try {
+                    String itemLocation = location.apply(request);
+                    Item<R> item = new Item<>(i, request, itemLocation, days.applyAsInt(request));
+                    groups.computeIfAbsent(locationKey.apply(itemLocation), key -> new ArrayList<>()).add(item);
+                } catch (RuntimeException e) {
+                    invalid.add(BatchItemResponse.failure(i, "Requisição inválida: " + e.getMessage()));
+                }
+            }
+
+            Flux<BatchItemResponse<T>> generated = Flux.fromIterable(groups.values())
+                    .flatMap(group -> {
+                        int maxDays = group.stream().mapToInt(item -> item.days).max().orElse(1);
+                        return forecast.apply(group.get(0).location, maxDays)
+                                .flatMapMany(weather -> Flux.fromIterable(group)
+                                        .map(item -> item.withWeather(WeatherService.firstDays(weather, item.days))))
+                                .onErrorResume(e -> Flux.fromIterable(group).map(item -> item.withError(e)));
+                    }, concurrency)
+                    .flatMap(this::generate, concurrency);
+
+            return Flux.fromIterable(invalid).concatWith(generated);
+        });
+    }
+
+    private Mono<BatchItemResponse<T>> generate(Item<R> item) {
+        if (item.error != null) {
+            return Mono.just(BatchItemResponse.failure(item.index, item.error.getMessage()));
+        }
+        return Mono.defer(() -> generate.apply(item.request, item.weather))
+                .map(result -> BatchItemResponse.success(item.index, result))
+                .onErrorResume(e -> Mono.just(BatchItemResponse.failure(item.index, e.getMessage())));
+    }
+
+    private static class Item<R> {
+        private final int index;
+        private final R request;
+        private final String location;
+        private final int days;
+        private final WeatherResponse weather;
+        private final Throwable error;
+
+        Item(int index, R request, String location, int days) {
+            this(index, request, location, days, null, null);
+        }
+
+        private Item(int index, R request, String location, int days, WeatherResponse weather, Throwable error) {
+            this.index = index;
+            this.request = request;
+            this.location = location;
+            this.days = days;
+            this.weather = weather;
+            this.error = error;
+        }
+
+        Item<R> withWeather(WeatherResponse weather) {
+            return new Item<>(index, request, location, days, weather, null);
+        }
+
+        Item<R> withError(Throwable error) {
+            return new Item<>(index, request, location, days, null, error);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.GeoIndex;
+import com.example.travelassistant.service.support.LocationCanonicalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cache de previsões por localização canônica (ver {@link LocationCanonicalizer}) e data do calendário.
+ * Cada dia da previsão é armazenado separadamente, com o seu próprio instante de busca,
+ * de modo que janelas menores ou sobrepostas possam ser atendidas sem chamar a WeatherAPI.
+ * As localizações com previsão ficam também em um {@link GeoIndex}, para o reuso da previsão de um vizinho próximo.
+ * As consultas às localizações pré-carregadas pelo {@link ForecastPrefetcher} são contadas em
+ * weather.prefetch.lookups (result = hit ou miss).
+ */
+@Component
+public class ForecastCache {
+
+    private final Map<String, LocationForecast> entries = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> prefetched = Set.of();
+    private final Counter prefetchHits;
+    private final Counter prefetchMisses;
+    private final Duration ttl;
+    private final Duration maxStale;
+    private final Clock clock;
+    private final LocationCanonicalizer canonicalizer;
+    private final GeoIndex geoIndex;
+    private final Duration geoMaxAge;
+    private final Counter geoReused;
+    private final Counter geoMisses;
+
+    @Autowired
+    public ForecastCache(AppConfig appConfig, MeterRegistry meterRegistry, LocationCanonicalizer canonicalizer) {
+        this.ttl = Duration.ofMinutes(appConfig.getWeatherCacheTtlMinutes());
+        this.maxStale = Duration.ofMinutes(appConfig.getWeatherCacheMaxStaleMinutes());
+        this.clock = Clock.systemDefaultZone();
+        this.canonicalizer = canonicalizer;
+        this.geoIndex = new GeoIndex(appConfig.getWeatherGeoRadiusKm());
+        this.geoMaxAge = Duration.ofMinutes(appConfig.getWeatherGeoMaxAgeMinutes());
+        this.geoReused = geoLookups(meterRegistry, "reused");
+        this.geoMisses = geoLookups(meterRegistry, "miss");
+        this.prefetchHits = prefetchLookups(meterRegistry, "hit");
+        this.prefetchMisses = prefetchLookups(meterRegistry, "miss");
+        Gauge.builder("weather.prefetch.destinations", this, cache -> cache.prefetched.size())
+                .description("Localizações mantidas no cache pela pré-carga")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca os próximos {@code days} dias para a localização, a partir da data local do destino.
+     * Retorna {@code null} se algum dia da janela não estiver no cache ou já tiver passado do limite de obsolescência.
+     */
+    public Lookup get(String location, int days) {
+        String key = canonicalizer.canonicalKey(location);
+        Lookup lookup = lookup(key, days, maxStale);
+        if (prefetched.contains(key)) {
+            (lookup != null ? prefetchHits : prefetchMisses).increment();
+        }
+        return lookup;
+    }
+
+    /**
+     * Previsão de {@code days} dias de uma localização em cache a até weather.geo.radius-km do destino,
+     * com todos os dias buscados há no máximo weather.geo.max-age-minutes; a mais próxima vence.
+     * A resposta mantém o nome, o país e as coordenadas do destino pedido e sai marcada com a localização de origem
+     * e a distância. Retorna {@code null} se não houver.
+     */
+    public WeatherResponse getNearby(LocationCanonicalizer.Canonical destination, int days) {
+        for (GeoIndex.Match match : geoIndex.nearby(destination.lat(), destination.lon())) {
+            Lookup lookup = lookup(match.key(), days, geoMaxAge);
+            if (lookup != null) {
+                WeatherResponse response = lookup.getResponse();
+                WeatherResponse.Location neighbour = response.getLocation();
+                response.setReusedFrom(neighbour != null && neighbour.getName() != null ? neighbour.getName() : match.key());
+                response.setReusedDistanceKm(Math.round(match.distanceKm() * 10) / 10.0);
+                response.setLocation(relocate(neighbour, destination));
+                geoReused.increment();
+                return response;
+            }
+        }
+        geoMisses.increment();
+        return null;
+    }
+
+    /**
+     * Localização do destino pedido; o fuso e a hora local vêm do vizinho, a poucos quilômetros.
+     */
+    private static WeatherResponse.Location relocate(WeatherResponse.Location neighbour, LocationCanonicalizer.Canonical destination) {
+        WeatherResponse.Location location = new WeatherResponse.Location();
+        location.setName(destination.name());
+        location.setRegion(destination.region());
+        location.setCountry(destination.country());
+        location.setLat(destination.lat());
+        location.setLon(destination.lon());
+        if (neighbour != null) {
+            location.setTzId(neighbour.getTzId());
+            location.setLocaltimeEpoch(neighbour.getLocaltimeEpoch());
+            location.setLocaltime(neighbour.getLocaltime());
+        }
+        return location;
+    }
+
+    /**
+     * Indica se há alguma localização no índice espacial (sem ela, não vale resolver coordenadas).
+     */
+    public boolean hasLocations() {
+        return geoIndex.size() > 0;
+    }
+
+    private Lookup lookup(String key, int days, Duration maxAge) {
+        LocationForecast forecast = entries.get(key);
+        if (forecast == null) {
+            return null;
+        }
+
+        Instant now = clock.instant();
+        LocalDate today = forecast.today(clock);
+        List<WeatherResponse.ForecastDay> forecastDays = new ArrayList<>(days);
+        boolean stale = false;
+
+        for (int i = 0; i < days; i++) {
+            CachedDay cachedDay = forecast.days.get(today.plusDays(i));
+            if (cachedDay == null || now.isAfter(cachedDay.fetchedAt.plus(maxAge))) {
+                return null;
+            }
+            stale |= now.isAfter(cachedDay.fetchedAt.plus(ttl));
+            forecastDays.add(cachedDay.day);
+        }
+
+        WeatherResponse.Forecast responseForecast = new WeatherResponse.Forecast();
+        responseForecast.setForecastday(forecastDays);
+
+        WeatherResponse response = new WeatherResponse();
+        response.setLocation(forecast.location);
+        response.setForecast(responseForecast);
+
+        return new Lookup(response, stale);
+    }
+
+    /**
+     * Armazena cada dia da previsão individualmente, substituindo apenas os dias retornados
+     * e descartando os dias que já ficaram no passado.
+     * A localização devolvida pela WeatherAPI é registrada no {@link LocationCanonicalizer}, e a previsão fica
+     * sob a chave canônica, compartilhada com as demais grafias do mesmo lugar.
+     */
+    public void put(String location, WeatherResponse response) {
+        if (response == null || response.getForecast() == null || response.getForecast().getForecastday() == null) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        String canonicalKey = canonicalizer.learn(location, response.getLocation());
+        LocationForecast forecast = entries.compute(canonicalKey, (key, existing) ->
+                existing == null ? new LocationForecast(response.getLocation()) : existing.withLocation(response.getLocation()));
+
+        for (WeatherResponse.ForecastDay day : response.getForecast().getForecastday()) {
+            if (day.getDate() != null) {
+                forecast.days.put(LocalDate.parse(day.getDate()), new CachedDay(day, now));
+            }
+        }
+
+        LocalDate today = forecast.today(clock);
+        forecast.days.keySet().removeIf(date -> date.isBefore(today));
+
+        WeatherResponse.Location resolved = forecast.location;
+        if (resolved != null && (resolved.getLat() != 0 || resolved.getLon() != 0)) {
+            geoIndex.put(canonicalKey, resolved.getLat(), resolved.getLon());
+        }
+    }
+
+    /**
+     * Marca a localização como em atualização. Retorna {@code false} se já houver uma atualização em andamento.
+     */
+    public boolean tryStartRefresh(String location) {
+        return refreshing.add(canonicalizer.canonicalKey(location));
+    }
+
+    public void finishRefresh(String location) {
+        refreshing.remove(canonicalizer.canonicalKey(location));
+    }
+
+    /**
+     * Substitui o conjunto de localizações mantidas pela pré-carga, usado apenas nas métricas de acerto.
+     */
+    public void setPrefetched(Collection<String> locations) {
+        prefetched = locations.stream().map(canonicalizer::canonicalKey).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static Counter geoLookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("weather.geo.lookups")
+                .description("Buscas por previsão de uma localização vizinha em cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter prefetchLookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("weather.prefetch.lookups")
+                .description("Consultas ao cache de previsões para localizações pré-carregadas")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public static class Lookup {
+        private final WeatherResponse response;
+        private final boolean stale;
+
+        Lookup(WeatherResponse response, boolean stale) {
+            this.response = response;
+            this.stale = stale;
+        }
+
+        public WeatherResponse getResponse() {
+            return response;
+        }
+
+        public boolean isStale() {
+            return stale;
+        }
+    }
+
+    private static class LocationForecast {
+        private final WeatherResponse.Location location;
+        private final Map<LocalDate, CachedDay> days;
+
+        LocationForecast(WeatherResponse.Location location) {
+            this(location, new ConcurrentHashMap<>());
+        }
+
+        private LocationForecast(WeatherResponse.Location location, Map<LocalDate, CachedDay> days) {
+            this.location = location;
+            this.days = days;
+        }
+
+        LocationForecast withLocation(WeatherResponse.Location newLocation) {
+            return newLocation == null ? this : new LocationForecast(newLocation, days);
+        }
+
+        LocalDate today(Clock clock) {
+            if (location != null && location.getTzId() != null) {
+                try {
+                    return LocalDate.now(clock.withZone(ZoneId.of(location.getTzId())));
+                } catch (Exception e) {
+                    // Fuso horário desconhecido: usa o fuso do servidor
+                }
+            }
+            return LocalDate.now(clock);
+        }
+    }
+
+    private static class CachedDay {
+        private final WeatherResponse.ForecastDay day;
+        private final Instant fetchedAt;
+
+        CachedDay(WeatherResponse.ForecastDay day, Instant fetchedAt) {
+            this.day = day;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodificador enxuto da resposta de /forecast.json.
+ * Percorre o corpo com o parser de streaming do Jackson e materializa apenas a localização e o resumo diário
+ * (temperaturas mín/máx/média, condição e chance de chuva), pulando "current", "astro" e as 24 entradas de "hour"
+ * de cada dia sem criar objetos para elas.
+ * Na leitura incremental ({@link #decode(Flux, long)}) o corpo não é juntado em memória: cada pedaço alimenta o
+ * parser não bloqueante do Jackson assim que chega, e só os tokens do resumo são guardados até o fim do corpo.
+ * As condições são compartilhadas por código (flyweight) e não devem ser alteradas por quem as recebe.
+ */
+@Component
+public class ForecastDecoder {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Map<Integer, WeatherResponse.Condition> conditions = new ConcurrentHashMap<>();
+
+    public WeatherResponse decode(InputStream body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return read(parser);
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Decodifica o corpo à medida que os buffers chegam, liberando cada um logo depois de lido.
+     * Falha com {@link DataBufferLimitException} se o corpo passar de {@code maxBytes}.
+     */
+    public Mono<WeatherResponse> decode(Flux<DataBuffer> body, long maxBytes) {
+        return Mono.defer(() -> body
+                .reduce(new IncrementalDecoding(maxBytes), (decoding, buffer) -> {
+                    try {
+                        decoding.feed(buffer);
+                        return decoding;
+                    } catch (IOException e) {
+                        throw failure(e);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .map(decoding -> {
+                    try {
+                        return decoding.finish();
+                    } catch (IOException e) {
+                        throw failure(e);
+                    }
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+    }
+
+    private static UncheckedIOException failure(IOException e) {
+        return new UncheckedIOException("Erro ao decodificar previsão meteorológica: " + e.getMessage(), e);
+    }
+
+    private WeatherResponse read(JsonParser parser) throws IOException {
+        WeatherResponse response = new WeatherResponse();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Resposta da WeatherAPI não é um objeto JSON");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "location" -> response.setLocation(readLocation(parser));
+                case "forecast" -> response.setForecast(readForecast(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return response;
+    }
+
+    private WeatherResponse.Location readLocation(JsonParser parser) throws IOException {
+        WeatherResponse.Location location = new WeatherResponse.Location();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> location.setName(parser.getValueAsString());
+                case "region" -> location.setRegion(parser.getValueAsString());
+                case "country" -> location.setCountry(parser.getValueAsString());
+                case "lat" -> location.setLat(parser.getValueAsDouble());
+                case "lon" -> location.setLon(parser.getValueAsDouble());
+                case "tz_id" -> location.setTzId(parser.getValueAsString());
+                case "localtime_epoch" -> location.setLocaltimeEpoch(parser.getValueAsLong());
+                case "localtime" -> location.setLocaltime(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return location;
+    }
+
+    private WeatherResponse.Forecast readForecast(JsonParser parser) throws IOException {
+        WeatherResponse.Forecast forecast = new WeatherResponse.Forecast();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("forecastday".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                List<WeatherResponse.ForecastDay> days = new ArrayList<>(14);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    days.add(readForecastDay(parser));
+                }
+                forecast.setForecastday(days);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return forecast;
+    }
+
+    private WeatherResponse.ForecastDay readForecastDay(JsonParser parser) throws IOException {
+        WeatherResponse.ForecastDay forecastDay = new WeatherResponse.ForecastDay();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "date" -> forecastDay.setDate(parser.getValueAsString());
+                case "date_epoch" -> forecastDay.setDateEpoch(parser.getValueAsLong());
+                case "day" -> forecastDay.setDay(readDay(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return forecastDay;
+    }
+
+    private WeatherResponse.Day readDay(JsonParser parser) throws IOException {
+        WeatherResponse.Day day = new WeatherResponse.Day();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "maxtemp_c" -> day.setMaxtempC(parser.getValueAsDouble());
+                case "mintemp_c" -> day.setMintempC(parser.getValueAsDouble());
+                case "avgtemp_c" -> day.setAvgtempC(parser.getValueAsDouble());
+                case "daily_chance_of_rain" -> day.setDailyChanceOfRain(parser.getValueAsInt());
+                case "condition" -> day.setCondition(readCondition(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return day;
+    }
+
+    private WeatherResponse.Condition readCondition(JsonParser parser) throws IOException {
+        String text = null;
+        String icon = null;
+        int code = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "text" -> text = parser.getValueAsString();
+                case "icon" -> icon = parser.getValueAsString();
+                case "code" -> code = parser.getValueAsInt();
+                default -> parser.skipChildren();
+            }
+        }
+        return intern(code, text, icon);
+    }
+
+    private WeatherResponse.Condition intern(int code, String text, String icon) {
+        WeatherResponse.Condition shared = conditions.get(code);
+        if (shared != null && Objects.equals(shared.getText(), text) && Objects.equals(shared.getIcon(), icon)) {
+            return shared;
+        }
+
+        WeatherResponse.Condition condition = new WeatherResponse.Condition();
+        condition.setCode(code);
+        condition.setText(text);
+        condition.setIcon(icon);
+        conditions.putIfAbsent(code, condition);
+        return condition;
+    }
+
+    /**
+     * Campos mantidos em cada objeto, pelo caminho do objeto ("" é a raiz, "[]" marca os elementos de um array).
+     * Dentro de "location" e de "day" tudo é mantido; os demais caminhos nunca são alcançados porque foram pulados.
+     */
+    private static boolean wanted(String path, String field) {
+        return switch (path) {
+            case "" -> "location".equals(field) || "forecast".equals(field);
+            case "forecast" -> "forecastday".equals(field);
+            case "forecast.forecastday[]" -> "date".equals(field) || "date_epoch".equals(field) || "day".equals(field);
+            default -> true;
+        };
+    }
+
+    /**
+     * Estado de uma leitura incremental: o parser não bloqueante e os tokens do resumo, guardados num
+     * {@link TokenBuffer} que no fim é relido por {@link #read(JsonParser)}. Valores fora do resumo, como as entradas
+     * de "hour", são descartados token a token, sem depender de skipChildren (que não sabe esperar por mais bytes).
+     */
+    private final class IncrementalDecoding {
+
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final TokenBuffer tokens = new TokenBuffer((ObjectCodec) null, false);
+        private final Deque<Container> containers = new ArrayDeque<>();
+        private final long maxBytes;
+        private long bytes;
+        private String field;
+        private boolean skipValue;
+        private int skipDepth;
+
+        IncrementalDecoding(long maxBytes) {
+            try {
+                this.parser = jsonFactory.createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw failure(e);
+            }
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            this.maxBytes = maxBytes;
+        }
+
+        void feed(DataBuffer buffer) throws IOException {
+            bytes += buffer.readableByteCount();
+            if (bytes > maxBytes) {
+                throw new DataBufferLimitException("Resposta da WeatherAPI excede " + maxBytes + " bytes");
+            }
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    feeder.feedInput(iterator.next());
+                    drain();
+                }
+            }
+        }
+
+        WeatherResponse finish() throws IOException {
+            feeder.endOfInput();
+            drain();
+            parser.close();
+            try (JsonParser buffered = tokens.asParser()) {
+                return read(buffered);
+            }
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                accept(token);
+            }
+        }
+
+        private void accept(JsonToken token) throws IOException {
+            if (skipDepth > 0) {
+                if (token.isStructStart()) {
+                    skipDepth++;
+                } else if (token.isStructEnd()) {
+                    skipDepth--;
+                }
+                return;
+            }
+            if (skipValue) {
+                skipValue = false;
+                skipDepth = token.isStructStart() ? 1 : 0;
+                return;
+            }
+
+            Container parent = containers.peek();
+            if (token == JsonToken.FIELD_NAME) {
+                field = parser.currentName();
+                if (parent != null && !wanted(parent.path(), field)) {
+                    skipValue = true;
+                    return;
+                }
+            } else if (token.isStructStart()) {
+                containers.push(new Container(childPath(parent), token == JsonToken.START_ARRAY));
+            } else if (token.isStructEnd()) {
+                containers.pop();
+            }
+            tokens.copyCurrentEvent(parser);
+        }
+
+        private String childPath(Container parent) {
+            if (parent == null) {
+                return "";
+            }
+            if (parent.array()) {
+                return parent.path() + "[]";
+            }
+            return parent.path().isEmpty() ? field : parent.path() + "." + field;
+        }
+    }
+
+    private record Container(String path, boolean array) {
+    }
+}
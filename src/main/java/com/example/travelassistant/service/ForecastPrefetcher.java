@@ -0,0 +1,142 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.storage.QueryRepository;
+import com.example.travelassistant.model.storage.TravelQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mantém no cache as previsões dos destinos mais consultados no histórico recente.
+ * A cada execução (weather.prefetch.cron e na inicialização), escolhe os top-K destinos das últimas
+ * weather.prefetch.history-hours horas e atualiza a previsão de cada um com o maior número de dias pedido para ele,
+ * antes de o TTL expirar e também logo depois da virada do dia no destino.
+ * As chamadas passam pelo mesmo single-flight e circuit breaker das requisições, com concorrência e taxa limitadas.
+ */
+@Component
+public class ForecastPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastPrefetcher.class);
+
+    private final QueryRepository queryRepository;
+    private final WeatherService weatherService;
+    private final ForecastCache forecastCache;
+    private final AppConfig appConfig;
+    private final Counter refreshed;
+    private final Counter failed;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public ForecastPrefetcher(QueryRepository queryRepository, WeatherService weatherService,
+                              ForecastCache forecastCache, AppConfig appConfig, MeterRegistry meterRegistry) {
+        this.queryRepository = queryRepository;
+        this.weatherService = weatherService;
+        this.forecastCache = forecastCache;
+        this.appConfig = appConfig;
+        this.refreshed = refreshes(meterRegistry, "success");
+        this.failed = refreshes(meterRegistry, "error");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchOnStartup() {
+        prefetch();
+    }
+
+    /**
+     * Dispara a pré-carga e retorna imediatamente; uma execução ainda em andamento faz esta ser ignorada.
+     */
+    @Scheduled(cron = "${weather.prefetch.cron:0 */20 * * * *}")
+    public void prefetch() {
+        if (!appConfig.isWeatherPrefetchEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        List<Demand> destinations = topDestinations();
+        forecastCache.setPrefetched(destinations.stream().map(Demand::location).toList());
+        if (destinations.isEmpty()) {
+            running.set(false);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Duration interval = Duration.ofNanos((long) (1_000_000_000L / appConfig.getWeatherPrefetchRatePerSecond()));
+
+        Flux.fromIterable(destinations)
+                .delayElements(interval)
+                .flatMap(demand -> weatherService.refreshForecast(demand.location(), demand.days())
+                                .doOnNext(response -> refreshed.increment())
+                                .then(Mono.just(true))
+                                .onErrorResume(e -> {
+                                    failed.increment();
+                                    log.warn("Falha na pré-carga da previsão para {}: {}", demand.location(), e.getMessage());
+                                    return Mono.just(false);
+                                }),
+                        appConfig.getWeatherPrefetchMaxConcurrency())
+                .filter(Boolean::booleanValue)
+                .count()
+                .doFinally(signal -> running.set(false))
+                .subscribe(count -> log.info("Pré-carga de previsões: {} de {} destinos em {} ms",
+                        count, destinations.size(), System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Destinos do histórico recente ordenados pelo número de consultas, com o maior período pedido para cada um.
+     */
+    List<Demand> topDestinations() {
+        LocalDateTime since = LocalDateTime.now().minusHours(appConfig.getWeatherPrefetchHistoryHours());
+        Map<String, Demand> demand = new HashMap<>();
+
+        for (TravelQuery query : queryRepository.findSince(since)) {
+            if (query.getDestination() == null || query.getDestination().isBlank()) {
+                continue;
+            }
+            int days = days(query);
+            demand.merge(weatherService.locationKey(query.getDestination()),
+                    new Demand(query.getDestination().replace(", ", ","), days, 1),
+                    (current, added) -> new Demand(current.location(), Math.max(current.days(), days), current.queries() + 1));
+        }
+
+        return demand.values().stream()
+                .sorted(Comparator.comparingInt(Demand::queries).reversed())
+                .limit(appConfig.getWeatherPrefetchTopK())
+                .toList();
+    }
+
+    private static int days(TravelQuery query) {
+        try {
+            long days = ChronoUnit.DAYS.between(LocalDate.parse(query.getStartDate()), LocalDate.parse(query.getEndDate())) + 1;
+            return (int) Math.max(1, Math.min(days, WeatherService.MAX_FORECAST_DAYS));
+        } catch (Exception e) {
+            return 1;
+        }
+    }
+
+    private static Counter refreshes(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("weather.prefetch.refreshes")
+                .description("Previsões atualizadas pela pré-carga")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    record Demand(String location, int days, int queries) {
+    }
+}
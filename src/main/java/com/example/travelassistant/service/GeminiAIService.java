@@ -5,111 +5,315 @@ import com.example.travelassistant.exception.ExternalApiException;
 import com.example.travelassistant.model.request.TravelInfoRequest;
 import com.example.travelassistant.model.response.BaggageRecommendationResponse;
 import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.GeminiResponseSchema;
+import com.example.travelassistant.service.support.PayloadLogger;
+import com.example.travelassistant.service.support.SingleFlight;
+import com.example.travelassistant.service.support.UpstreamGuard;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class GeminiAIService {
 
+    private static final Logger log = LoggerFactory.getLogger(GeminiAIService.class);
+
+    // Fecho das instruções dos prompts que pedem JSON estruturado
+    static final String JSON_ONLY_INSTRUCTION =
+            "Importante: retorne SOMENTE o JSON, sem explicações adicionais. O JSON deve estar bem formatado e válido.";
+
     private final WebClient geminiApiClient;
     private final AppConfig appConfig;
     private final ObjectMapper objectMapper;
+    private final SingleFlight<String, byte[]> geminiSingleFlight;
+    private final GeminiResponseCache responseCache;
+    private final UpstreamGuard geminiGuard;
+    private final PayloadLogger payloadLogger;
 
     @Autowired
-    public GeminiAIService(WebClient geminiApiClient, AppConfig appConfig) {
+    public GeminiAIService(
+            WebClient geminiApiClient,
+            AppConfig appConfig,
+            SingleFlight<String, byte[]> geminiSingleFlight,
+            GeminiResponseCache responseCache,
+            UpstreamGuard geminiGuard,
+            PayloadLogger payloadLogger) {
         this.geminiApiClient = geminiApiClient;
         this.appConfig = appConfig;
+        this.geminiSingleFlight = geminiSingleFlight;
+        this.responseCache = responseCache;
+        this.geminiGuard = geminiGuard;
+        this.payloadLogger = payloadLogger;
         this.objectMapper = new ObjectMapper();
     }
 
     /**
-     * Gera conteúdo usando a API Gemini ou retorna uma mensagem de fallback em caso de falha.
+     * Gera conteúdo com o prazo padrão (o mesmo do roteiro).
      */
-    public String generateContent(String prompt) {
+    public Mono<String> generateContent(String prompt) {
+        return generateContent(prompt, Duration.ofMillis(appConfig.getGeminiDeadlineItineraryMs()));
+    }
+
+    /**
+     * Gera conteúdo a partir de um prompt sem instruções fixas.
+     */
+    public Mono<String> generateContent(String prompt, Duration deadline) {
+        return generateContent("", prompt, deadline);
+    }
+
+    /**
+     * Gera conteúdo usando a API Gemini ou retorna uma mensagem de fallback em caso de falha
+     * ou quando a resposta não chega dentro do prazo.
+     * As instruções fixas vão como systemInstruction, separadas da parte variável do prompt.
+     * Chamadas simultâneas com o mesmo prompt compartilham uma única requisição à API, e a resposta
+     * é guardada em cache mesmo que chegue depois do prazo.
+     * Com o circuito aberto ou o limite de concorrência atingido, o fallback é usado sem chamar a API.
+     */
+    public Mono<String> generateContent(String instructions, String prompt, Duration deadline) {
+        return generate(instructions, prompt, null, body -> extractText(objectMapper.readTree(body)), deadline)
+                // Em caso de falha, retorna uma mensagem indicando o uso do modo fallback
+                .defaultIfEmpty("FALLBACK_MODE");
+    }
+
+    /**
+     * Gera uma resposta estruturada: a API recebe responseMimeType application/json e um responseSchema gerado
+     * a partir de {@code responseType}, e o JSON gerado é desserializado direto dos bytes da resposta.
+     * Segue as mesmas regras de cache, single-flight, prazo e circuit breaker de
+     * {@link #generateContent(String, String, Duration)}, mas retorna vazio quando o chamador deve usar o fallback.
+     */
+    public <T> Mono<T> generateObject(String instructions, String prompt, Class<T> responseType, Duration deadline) {
+        ObjectReader reader = objectMapper.readerFor(responseType)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return generate(instructions, prompt, responseType, body -> readCandidate(body, reader), deadline);
+    }
+
+    private <T> Mono<T> generate(String instructions, String prompt, Class<?> schemaType,
+                                 ResponseDecoder<T> decoder, Duration deadline) {
+        String text = instructions.isEmpty() ? prompt : instructions + "\n\n" + prompt;
+        String key = schemaType == null ? text : schemaType.getName() + "\n" + text;
+
+        // Cache e single-flight compartilham só os bytes da resposta; cada chamador desserializa o próprio objeto
+        return Mono.defer(() -> {
+                    byte[] cached = responseCache.get(key);
+                    if (cached != null) {
+                        return Mono.just(cached);
+                    }
+
+                    return geminiSingleFlight.execute(key, () -> geminiGuard.execute(() -> call(instructions, prompt, schemaType))
+                                    .doOnNext(body -> responseCache.put(key, body)))
+                            .timeout(deadline)
+                            .doOnError(e -> log.warn("Tentativa com gemini-2.0-flash falhou: {}", describe(e, deadline)));
+                })
+                .<T>handle((body, sink) -> decode(key, body, decoder, sink))
+                // Se chegou aqui sem resposta, a tentativa falhou
+                .switchIfEmpty(Mono.error(() -> new ExternalApiException("Falha ao chamar API Gemini", "Gemini AI")))
+                .onErrorResume(e -> {
+                    log.warn("Usando modo fallback para geração de conteúdo: {}", describe(e, deadline));
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Desserializa a resposta para o chamador. A API respondeu, então um conteúdo inválido não conta como falha para
+     * o circuit breaker, mas sai do cache para que a próxima chamada peça uma nova resposta.
+     */
+    private <T> void decode(String key, byte[] body, ResponseDecoder<T> decoder, SynchronousSink<T> sink) {
         try {
-            // Tentativa com o modelo gemini-2.0-flash (versão gratuita)
-            try {
-                String response = callGeminiApi("https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent", prompt);
-                if (response != null) {
-                    return response;
-                }
-            } catch (Exception e) {
-                System.out.println("Tentativa com gemini-2.0-flash falhou: " + e.getMessage());
+            T response = decoder.decode(body);
+            if (response != null) {
+                sink.next(response);
+                return;
             }
+        } catch (IOException e) {
+            log.warn("Resposta do Gemini fora do formato esperado: {}", e.getMessage());
+        }
+        responseCache.invalidate(key, body);
+    }
 
-            // Se chegou aqui, a tentativa falhou
-            throw new ExternalApiException("Falha ao chamar API Gemini", "Gemini AI");
-        } catch (Exception e) {
-            // Em caso de falha, retorna uma mensagem indicando o uso do modo fallback
-            System.out.println("Usando modo fallback para geração de conteúdo: " + e.getMessage());
-            return "FALLBACK_MODE";
+    private String describe(Throwable e, Duration deadline) {
+        if (e instanceof TimeoutException) {
+            return "prazo de " + deadline.toMillis() + " ms esgotado";
         }
+        return e.getMessage();
+    }
+
+    private Mono<byte[]> call(String instructions, String prompt, Class<?> schemaType) {
+        // Tentativa com o modelo gemini-2.0-flash (versão gratuita)
+        String url = appConfig.getGeminiApiUrl() + ":generateContent";
+        return callGeminiApi(url, buildRequestBody(instructions, prompt, schemaType));
     }
 
     /**
      * Método auxiliar para chamar a API Gemini com uma URL específica.
+     * O corpo da resposta chega como bytes, sem conversão para String, e é desserializado por quem o recebe.
      */
-    private String callGeminiApi(String url, String prompt) {
-        try {
-            ObjectNode requestBody = objectMapper.createObjectNode();
+    private Mono<byte[]> callGeminiApi(String url, ObjectNode requestBody) {
+        String fullUrl = url + "?key=" + appConfig.getGeminiApiKey();
+
+        String payload = requestBody.toString();
+
+        log.debug("Chamando API Gemini: {}", url);
+        PayloadLogger.Exchange exchange = payloadLogger.start("gemini", payload);
+
+        return geminiApiClient
+                .post()
+                .uri(fullUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(payload))
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .doOnNext(body -> exchange.response(() -> new String(body, StandardCharsets.UTF_8)))
+                .doOnError(exchange::failure)
+                .onErrorMap(e -> new RuntimeException("Erro na chamada para " + url + ": " + e.getMessage(), e));
+    }
 
-            ArrayNode contents = objectMapper.createArrayNode();
-            ObjectNode content = objectMapper.createObjectNode();
+    /**
+     * Gera conteúdo em streaming (streamGenerateContent via SSE), emitindo cada trecho de texto assim que chega.
+     * Com {@code responseType}, o texto segue o responseSchema do modelo, como em {@link #generateObject}.
+     * Erros (inclusive a recusa pelo circuit breaker) são propagados para que o chamador decida pelo fallback.
+     */
+    public Flux<String> streamContent(String instructions, String prompt, Class<?> responseType) {
+        String url = appConfig.getGeminiApiUrl() + ":streamGenerateContent";
+        String fullUrl = url + "?alt=sse&key=" + appConfig.getGeminiApiKey();
+
+        log.debug("Chamando API Gemini (streaming): {}", url);
+
+        return geminiGuard.executeMany(() -> geminiApiClient
+                .post()
+                .uri(fullUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromValue(buildRequestBody(instructions, prompt, responseType).toString()))
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() { })
+                .<String>handle((event, sink) -> {
+                    if (event.data() == null) {
+                        return;
+                    }
+                    try {
+                        String text = extractText(objectMapper.readTree(event.data()));
+                        if (text != null) {
+                            sink.next(text);
+                        }
+                    } catch (Exception e) {
+                        sink.error(e);
+                    }
+                })
+                .onErrorMap(e -> new RuntimeException("Erro na chamada para " + url + ": " + e.getMessage(), e)));
+    }
 
-            ArrayNode parts = objectMapper.createArrayNode();
-            ObjectNode part = objectMapper.createObjectNode();
-            part.put("text", prompt);
-            parts.add(part);
+    private ObjectNode buildRequestBody(String instructions, String prompt, Class<?> responseType) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
 
-            content.set("parts", parts);
-            contents.add(content);
+        if (!instructions.isEmpty()) {
+            requestBody.set("systemInstruction", content(null, instructions));
+        }
 
-            requestBody.set("contents", contents);
+        ArrayNode contents = objectMapper.createArrayNode();
+        contents.add(content("user", prompt));
+        requestBody.set("contents", contents);
 
-            String fullUrl = url + "?key=" + appConfig.getGeminiApiKey();
+        if (responseType != null) {
+            ObjectNode generationConfig = requestBody.putObject("generationConfig");
+            generationConfig.put("responseMimeType", "application/json");
+            generationConfig.set("responseSchema", GeminiResponseSchema.of(responseType));
+        }
 
-            System.out.println("Chamando API Gemini: " + url);
-            System.out.println("Payload: " + requestBody.toString());
+        return requestBody;
+    }
 
-            JsonNode response = geminiApiClient
-                    .post()
-                    .uri(fullUrl)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(BodyInserters.fromValue(requestBody.toString()))
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
+    private ObjectNode content(String role, String text) {
+        ObjectNode content = objectMapper.createObjectNode();
+        if (role != null) {
+            content.put("role", role);
+        }
 
-            System.out.println("Resposta da API: " + response);
+        ArrayNode parts = objectMapper.createArrayNode();
+        ObjectNode part = objectMapper.createObjectNode();
+        part.put("text", text);
+        parts.add(part);
 
-            if (response != null &&
-                    response.has("candidates") &&
-                    response.get("candidates").size() > 0 &&
-                    response.get("candidates").get(0).has("content") &&
-                    response.get("candidates").get(0).get("content").has("parts") &&
-                    response.get("candidates").get(0).get("content").get("parts").size() > 0 &&
-                    response.get("candidates").get(0).get("content").get("parts").get(0).has("text")) {
+        content.set("parts", parts);
+        return content;
+    }
 
-                return response.get("candidates").get(0).get("content").get("parts").get(0).get("text").asText();
+    /**
+     * Desserializa o texto do primeiro candidato sem montar a árvore da resposta nem copiar o texto para uma String:
+     * o envelope é percorrido com o parser em streaming e o conteúdo do token de texto vai direto para o reader.
+     */
+    <T> T readCandidate(byte[] body, ObjectReader reader) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            boolean found = parser.nextToken() == JsonToken.START_OBJECT
+                    && moveToField(parser, "candidates") && parser.nextToken() == JsonToken.START_ARRAY
+                    && parser.nextToken() == JsonToken.START_OBJECT
+                    && moveToField(parser, "content") && parser.nextToken() == JsonToken.START_OBJECT
+                    && moveToField(parser, "parts") && parser.nextToken() == JsonToken.START_ARRAY
+                    && parser.nextToken() == JsonToken.START_OBJECT
+                    && moveToField(parser, "text") && parser.nextToken() == JsonToken.VALUE_STRING;
+            if (!found) {
+                return null;
             }
 
-            return null;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro na chamada para " + url + ": " + e.getMessage(), e);
+            try (JsonParser text = objectMapper.getFactory()
+                    .createParser(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+                return reader.readValue(text);
+            }
         }
     }
 
+    /**
+     * Avança até o campo do objeto atual, pulando os anteriores; false se o objeto terminar antes.
+     */
+    private static boolean moveToField(JsonParser parser, String field) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (field.equals(parser.currentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private String extractText(JsonNode response) {
+        if (response != null &&
+                response.has("candidates") &&
+                response.get("candidates").size() > 0 &&
+                response.get("candidates").get(0).has("content") &&
+                response.get("candidates").get(0).get("content").has("parts") &&
+                response.get("candidates").get(0).get("content").get("parts").size() > 0 &&
+                response.get("candidates").get(0).get("content").get("parts").get(0).has("text")) {
+
+            return response.get("candidates").get(0).get("content").get("parts").get(0).get("text").asText();
+        }
+
+        return null;
+    }
+
     /**
      * Gera uma recomendação de bagagem simplificada quando a API Gemini falha.
      */
@@ -264,4 +468,9 @@ public class GeminiAIService {
         item.setDescription(description);
         return item;
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface ResponseDecoder<T> {
+        T decode(byte[] body) throws IOException;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.config.AppConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache das respostas do Gemini por prompt, com TTL. Guarda o corpo da resposta como chegou da API, e cada chamador
+ * desserializa a própria cópia: os modelos de resposta são mutáveis e não podem ser compartilhados entre requisições.
+ * Guarda também respostas que chegaram depois do prazo da requisição, para que a próxima chamada as aproveite.
+ */
+@Component
+public class GeminiResponseCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int maxEntries;
+
+    @Autowired
+    public GeminiResponseCache(AppConfig appConfig) {
+        this.ttl = Duration.ofMinutes(appConfig.getGeminiCacheTtlMinutes());
+        this.maxEntries = appConfig.getGeminiCacheMaxEntries();
+    }
+
+    public byte[] get(String prompt) {
+        Entry entry = entries.get(prompt);
+        if (entry == null) {
+            return null;
+        }
+        if (Instant.now().isAfter(entry.expiresAt)) {
+            entries.remove(prompt, entry);
+            return null;
+        }
+        return entry.body;
+    }
+
+    public void put(String prompt, byte[] body) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(prompt, new Entry(body, Instant.now().plus(ttl)));
+    }
+
+    /**
+     * Remove a resposta se ela ainda for a guardada para o prompt (por exemplo, quando não pôde ser desserializada).
+     */
+    public void invalidate(String prompt, byte[] body) {
+        entries.computeIfPresent(prompt, (key, entry) -> entry.body == body ? null : entry);
+    }
+
+    private void evict() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> now.isAfter(entry.expiresAt));
+
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static class Entry {
+        private final byte[] body;
+        private final Instant expiresAt;
+
+        Entry(byte[] body, Instant expiresAt) {
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,135 +1,262 @@
 package com.example.travelassistant.service;
 
+import com.example.travelassistant.config.AppConfig;
 import com.example.travelassistant.model.request.ItineraryRequest;
+import com.example.travelassistant.model.response.BatchItemResponse;
 import com.example.travelassistant.model.response.ItineraryResponse;
 import com.example.travelassistant.model.response.WeatherResponse;
 import com.example.travelassistant.model.storage.QueryRepository;
 import com.example.travelassistant.model.storage.TravelQuery;
+import com.example.travelassistant.service.support.ForecastPromptEncoder;
+import com.example.travelassistant.service.support.PipelineMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Service
 public class ItineraryService {
 
+    private static final Logger log = LoggerFactory.getLogger(ItineraryService.class);
+
+    private static final String ENDPOINT = "roteiro";
+
+    // Campos do roteiro, também usados nas instruções do plano de viagem
+    static final String ITINERARY_FIELDS =
+            "1. destination (destino)\n"
+                    + "2. travelPeriod (período da viagem)\n"
+                    + "3. weatherSummary - com description e dailyWeather (lista de previsões diárias)\n"
+                    + "4. dayPlans - lista de planos diários, cada um com:\n"
+                    + "   - date (data)\n"
+                    + "   - weatherDescription (descrição do clima do dia)\n"
+                    + "   - morningActivities (lista de atividades matutinas)\n"
+                    + "   - afternoonActivities (lista de atividades vespertinas)\n"
+                    + "   - eveningActivities (lista de atividades noturnas)\n"
+                    + "   - weatherBasedRecommendation (recomendação baseada no clima do dia)\n"
+                    + "5. generalTips - lista de dicas gerais para o destino\n"
+                    + "6. localCuisineRecommendations - recomendações gastronômicas locais\n"
+                    + "7. transportationTips - dicas de transporte local\n\n"
+                    + "Cada atividade deve conter:\n"
+                    + "- name (nome da atividade)\n"
+                    + "- description (descrição breve)\n"
+                    + "- location (localização)\n"
+                    + "- indoorOutdoor (\"indoor\", \"outdoor\" ou \"both\")\n"
+                    + "- weatherConsideration (consideração climática para a atividade)\n";
+
+    // Parte fixa do prompt (instruções e formato da resposta), enviada como systemInstruction
+    static final String ITINERARY_INSTRUCTIONS =
+            "Você é um assistente de viagem especializado em criar roteiros personalizados baseados no clima. "
+                    + "Gere um roteiro detalhado para a viagem descrita na mensagem, no formato JSON com os seguintes campos:\n"
+                    + ITINERARY_FIELDS + "\n"
+                    + GeminiAIService.JSON_ONLY_INSTRUCTION;
+
     private final WeatherService weatherService;
     private final GeminiAIService geminiAIService;
     private final QueryRepository queryRepository;
     private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+    private final AppConfig appConfig;
+    private final PipelineMetrics metrics;
+    private final ForecastPromptEncoder forecastEncoder;
 
     @Autowired
     public ItineraryService(
             WeatherService weatherService,
             GeminiAIService geminiAIService,
-            QueryRepository queryRepository) {
+            QueryRepository queryRepository,
+            Scheduler blockingScheduler,
+            AppConfig appConfig,
+            PipelineMetrics metrics,
+            ForecastPromptEncoder forecastEncoder) {
         this.weatherService = weatherService;
         this.geminiAIService = geminiAIService;
         this.queryRepository = queryRepository;
         this.objectMapper = new ObjectMapper();
+        this.blockingScheduler = blockingScheduler;
+        this.appConfig = appConfig;
+        this.metrics = metrics;
+        this.forecastEncoder = forecastEncoder;
     }
 
-    public ItineraryResponse generateItinerary(ItineraryRequest request) {
-        try {
+    public Mono<ItineraryResponse> generateItinerary(ItineraryRequest request) {
+        return Mono.defer(() -> {
             // Get weather forecast for the destination
-            String location = request.getCity() + "," + request.getCountry();
-            LocalDate startDate = LocalDate.parse(request.getStartDate());
-            LocalDate endDate = LocalDate.parse(request.getEndDate());
-            long daysBetween = ChronoUnit.DAYS.between(startDate, endDate) + 1;
-            int days = (int) Math.min(daysBetween, 14); // API has a limit of 14 days
+            return forecast(location(request), forecastDays(request))
+                    .flatMap(weatherResponse -> generate(request, weatherResponse));
+        }).onErrorMap(e -> new RuntimeException("Erro ao gerar roteiro de viagem: " + e.getMessage(), e));
+    }
 
-            WeatherResponse weatherResponse = weatherService.getForecast(location, days);
+    /**
+     * Gera roteiros para várias viagens, buscando a previsão uma única vez por destino
+     * e emitindo cada resultado assim que fica pronto (ver {@link ForecastBatch}).
+     */
+    public Flux<BatchItemResponse<ItineraryResponse>> generateItineraries(List<ItineraryRequest> requests) {
+        return new ForecastBatch<ItineraryRequest, ItineraryResponse>(
+                this::location, weatherService::locationKey, this::forecastDays, this::forecast, this::generate)
+                .run(requests, appConfig.getBatchMaxSize(), appConfig.getBatchMaxConcurrency());
+    }
 
-            // Build prompt for Gemini AI
-            String prompt = buildItineraryPrompt(request, weatherResponse);
+    private Mono<WeatherResponse> forecast(String location, int days) {
+        return metrics.time(PipelineMetrics.STAGE_FORECAST, ENDPOINT, weatherService.getForecast(location, days));
+    }
 
-            // Get recommendation from Gemini AI
-            String geminiResponse = geminiAIService.generateContent(prompt);
+    private Mono<ItineraryResponse> generate(ItineraryRequest request, WeatherResponse weatherResponse) {
+        // Build prompt for Gemini AI
+        String prompt = metrics.time(PipelineMetrics.STAGE_PROMPT, ENDPOINT, () -> buildItineraryPrompt(request, weatherResponse));
+
+        // O fallback é calculado em paralelo, para estar pronto caso o Gemini estoure o prazo
+        Mono<ItineraryResponse> fallback = Mono
+                .fromCallable(() -> metrics.time(PipelineMetrics.STAGE_FALLBACK, ENDPOINT,
+                        () -> createFallbackResponse(request, weatherResponse)))
+                .subscribeOn(Schedulers.parallel());
+
+        // Get recommendation from Gemini AI, já no formato estruturado (vazia quando é preciso usar o fallback)
+        Duration deadline = Duration.ofMillis(appConfig.getGeminiDeadlineItineraryMs());
+        Mono<Optional<ItineraryResponse>> geminiResponse = metrics
+                .time(PipelineMetrics.STAGE_GEMINI, ENDPOINT, geminiAIService.generateObject(
+                        ITINERARY_INSTRUCTIONS, prompt, ItineraryResponse.class, deadline))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+
+        return Mono.zip(geminiResponse, fallback)
+                .map(result -> toItinerary(result.getT1(), result.getT2()))
+                .doOnNext(response -> response.markReusedForecast(weatherResponse))
+                // Save query to repository
+                .flatMap(response -> metrics.time(PipelineMetrics.STAGE_SAVE, ENDPOINT,
+                                Mono.fromRunnable(() -> saveQuery(request, response))
+                                        .subscribeOn(blockingScheduler))
+                        .thenReturn(response));
+    }
 
-            // Parse Gemini response to structured format
-            ItineraryResponse response = parseGeminiResponse(geminiResponse, request, weatherResponse);
+    private String location(ItineraryRequest request) {
+        return WeatherService.location(request.getCity(), request.getCountry());
+    }
 
-            // Save query to repository
-            saveQuery(request, response);
+    private int forecastDays(ItineraryRequest request) {
+        return WeatherService.forecastDays(LocalDate.parse(request.getStartDate()), LocalDate.parse(request.getEndDate()));
+    }
 
-            return response;
+    /**
+     * Gera o roteiro em streaming: cada plano diário é enviado como evento SSE "dayPlan" assim que o Gemini
+     * termina de gerá-lo, e o roteiro completo é enviado no evento final "complete".
+     * Se o streaming falhar, os planos ainda não enviados vêm do roteiro de fallback.
+     */
+    public Flux<ServerSentEvent<Object>> streamItinerary(ItineraryRequest request) {
+        return Flux.defer(() -> {
+            return forecast(location(request), forecastDays(request))
+                    .flatMapMany(weatherResponse -> {
+                        String prompt = buildItineraryPrompt(request, weatherResponse);
+                        DayPlanStreamParser parser = new DayPlanStreamParser();
+                        AtomicInteger sentDayPlans = new AtomicInteger();
+
+                        Flux<ItineraryResponse.DayPlan> streamedDayPlans = geminiAIService.streamContent(ITINERARY_INSTRUCTIONS, prompt, ItineraryResponse.class)
+                                .concatMapIterable(parser::feed)
+                                .<ItineraryResponse.DayPlan>handle((json, sink) -> {
+                                    try {
+                                        sink.next(objectMapper.readValue(json, ItineraryResponse.DayPlan.class));
+                                    } catch (Exception e) {
+                                        log.warn("Plano diário inválido no streaming do Gemini: {}", e.getMessage());
+                                    }
+                                })
+                                .doOnNext(dayPlan -> sentDayPlans.incrementAndGet())
+                                .onErrorResume(e -> {
+                                    log.warn("Falha no streaming do Gemini, usando fallback: {}", e.getMessage());
+                                    return Flux.empty();
+                                });
+
+                        Flux<ServerSentEvent<Object>> completion = Mono
+                                .fromCallable(() -> parseGeminiResponse(parser.getText(),
+                                        () -> createFallbackResponse(request, weatherResponse)))
+                                .doOnNext(response -> response.markReusedForecast(weatherResponse))
+                                .flatMap(response -> Mono.fromRunnable(() -> saveQuery(request, response))
+                                        .subscribeOn(blockingScheduler)
+                                        .thenReturn(response))
+                                .flatMapMany(response -> {
+                                    List<ItineraryResponse.DayPlan> dayPlans =
+                                            response.getDayPlans() == null ? List.of() : response.getDayPlans();
+                                    return Flux.fromIterable(dayPlans)
+                                            .skip(sentDayPlans.get())
+                                            .map(this::dayPlanEvent)
+                                            .concatWith(Mono.just(ServerSentEvent.<Object>builder(response)
+                                                    .event("complete")
+                                                    .build()));
+                                });
+
+                        return streamedDayPlans.map(this::dayPlanEvent).concatWith(completion);
+                    });
+        }).onErrorMap(e -> new RuntimeException("Erro ao gerar roteiro de viagem: " + e.getMessage(), e));
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao gerar roteiro de viagem: " + e.getMessage(), e);
-        }
+    private ServerSentEvent<Object> dayPlanEvent(ItineraryResponse.DayPlan dayPlan) {
+        return ServerSentEvent.<Object>builder(dayPlan)
+                .event("dayPlan")
+                .build();
     }
 
-    private String buildItineraryPrompt(ItineraryRequest request, WeatherResponse weatherResponse) {
+    /**
+     * Parte variável do prompt (viagem e previsão); as instruções vão em {@link #ITINERARY_INSTRUCTIONS}.
+     */
+    String buildItineraryPrompt(ItineraryRequest request, WeatherResponse weatherResponse) {
         StringBuilder prompt = new StringBuilder();
 
-        prompt.append("Você é um assistente de viagem especializado em criar roteiros personalizados baseados no clima. ");
-        prompt.append("Por favor, gere um roteiro detalhado para uma viagem com as seguintes informações:\n\n");
-
         prompt.append("Destino: ").append(request.getCity()).append(", ").append(request.getCountry()).append("\n");
         prompt.append("Período: ").append(request.getStartDate()).append(" a ").append(request.getEndDate()).append("\n");
         prompt.append("Interesses: ").append(request.getInterests()).append("\n");
         prompt.append("Orçamento (1-5): ").append(request.getBudget()).append("\n");
         prompt.append("Estilo de viagem: ").append(request.getTravelStyle()).append("\n\n");
 
-        prompt.append("Dados meteorológicos para o período:\n");
-        if (weatherResponse.getForecast() != null && weatherResponse.getForecast().getForecastday() != null) {
-            for (WeatherResponse.ForecastDay day : weatherResponse.getForecast().getForecastday()) {
-                prompt.append("- ").append(day.getDate()).append(": ");
-                prompt.append("Temperatura mín: ").append(day.getDay().getMintempC()).append("°C, ");
-                prompt.append("máx: ").append(day.getDay().getMaxtempC()).append("°C. ");
-                prompt.append("Condição: ").append(day.getDay().getCondition().getText()).append(". ");
-                prompt.append("Chance de chuva: ").append(day.getDay().getDailyChanceOfRain()).append("%\n");
-            }
-        }
-
-        prompt.append("\nPor favor, forneça um roteiro detalhado no formato JSON com os seguintes campos:\n");
-        prompt.append("1. destination (destino)\n");
-        prompt.append("2. travelPeriod (período da viagem)\n");
-        prompt.append("3. weatherSummary - com description e dailyWeather (lista de previsões diárias)\n");
-        prompt.append("4. dayPlans - lista de planos diários, cada um com:\n");
-        prompt.append("   - date (data)\n");
-        prompt.append("   - weatherDescription (descrição do clima do dia)\n");
-        prompt.append("   - morningActivities (lista de atividades matutinas)\n");
-        prompt.append("   - afternoonActivities (lista de atividades vespertinas)\n");
-        prompt.append("   - eveningActivities (lista de atividades noturnas)\n");
-        prompt.append("   - weatherBasedRecommendation (recomendação baseada no clima do dia)\n");
-        prompt.append("5. generalTips - lista de dicas gerais para o destino\n");
-        prompt.append("6. localCuisineRecommendations - recomendações gastronômicas locais\n");
-        prompt.append("7. transportationTips - dicas de transporte local\n\n");
-
-        prompt.append("Cada atividade deve conter:\n");
-        prompt.append("- name (nome da atividade)\n");
-        prompt.append("- description (descrição breve)\n");
-        prompt.append("- location (localização)\n");
-        prompt.append("- indoorOutdoor (\"indoor\", \"outdoor\" ou \"both\")\n");
-        prompt.append("- weatherConsideration (consideração climática para a atividade)\n\n");
-
-        prompt.append("Importante: retorne SOMENTE o JSON, sem explicações adicionais. O JSON deve estar bem formatado e válido.");
+        forecastEncoder.append(prompt, weatherResponse);
 
         return prompt.toString();
     }
 
-    private ItineraryResponse parseGeminiResponse(String geminiResponse, ItineraryRequest request, WeatherResponse weatherResponse) {
-        try {
-            // Tentativa de extrair o JSON da resposta
-            String jsonContent = extractJsonFromString(geminiResponse);
-
-            // Parse do JSON para o objeto de resposta
-            return objectMapper.readValue(jsonContent, ItineraryResponse.class);
-
-        } catch (Exception e) {
-            // Fallback: criar uma resposta manual caso o parsing falhe
-            return createFallbackResponse(request, weatherResponse);
+    private ItineraryResponse toItinerary(Optional<ItineraryResponse> geminiResponse, ItineraryResponse fallback) {
+        if (geminiResponse.isEmpty()) {
+            // Se a API Gemini falhou, não respondeu no prazo ou gerou um JSON inválido, use o modo fallback
+            log.warn("Usando modo fallback para roteiro de viagem");
+            metrics.recordFallback(ENDPOINT, "gemini");
+            return fallback;
         }
+        return geminiResponse.get();
+    }
+
+    /**
+     * Roteiro completo a partir do texto acumulado no streaming, ou o fallback se ele estiver incompleto ou inválido.
+     */
+    private ItineraryResponse parseGeminiResponse(String geminiResponse, Supplier<ItineraryResponse> fallback) {
+        return metrics.time(PipelineMetrics.STAGE_PARSE, ENDPOINT, () -> {
+            try {
+                // Tentativa de extrair o JSON da resposta
+                String jsonContent = extractJsonFromString(geminiResponse);
+
+                // Parse do JSON para o objeto de resposta
+                return objectMapper.readValue(jsonContent, ItineraryResponse.class);
+
+            } catch (Exception e) {
+                // Fallback: criar uma resposta manual caso o parsing falhe
+                metrics.recordParseFailure(ENDPOINT);
+                metrics.recordFallback(ENDPOINT, "parse");
+                return fallback.get();
+            }
+        });
     }
 
-    private String extractJsonFromString(String text) {
+    String extractJsonFromString(String text) {
         // Encontrar onde começa e termina o JSON na resposta
         int startIdx = text.indexOf('{');
         int endIdx = text.lastIndexOf('}') + 1;
@@ -141,7 +268,7 @@ public class ItineraryService {
         throw new IllegalArgumentException("Não foi possível extrair JSON válido da resposta");
     }
 
-    private ItineraryResponse createFallbackResponse(ItineraryRequest request, WeatherResponse weatherResponse) {
+    ItineraryResponse createFallbackResponse(ItineraryRequest request, WeatherResponse weatherResponse) {
         ItineraryResponse response = new ItineraryResponse();
 
         // Dados básicos
@@ -292,15 +419,14 @@ public class ItineraryService {
             query.setDestination(request.getCity() + ", " + request.getCountry());
             query.setStartDate(request.getStartDate());
             query.setEndDate(request.getEndDate());
-            query.setRequestType("itinerary");
+            query.setRequestType(TravelQuery.ITINERARY);
             query.setRequestJson(objectMapper.writeValueAsString(request));
             query.setResponseJson(objectMapper.writeValueAsString(response));
-            query.setTimestamp(LocalDateTime.now());
 
             queryRepository.save(query);
         } catch (Exception e) {
             // Log error but don't fail the request
-            System.err.println("Erro ao salvar consulta: " + e.getMessage());
+            log.error("Erro ao salvar consulta: {}", e.getMessage(), e);
         }
     }
 }
\ No newline at end of file
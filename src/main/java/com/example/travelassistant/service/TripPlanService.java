@@ -0,0 +1,216 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.request.ItineraryRequest;
+import com.example.travelassistant.model.request.TravelInfoRequest;
+import com.example.travelassistant.model.request.TripPlanRequest;
+import com.example.travelassistant.model.response.BaggageRecommendationResponse;
+import com.example.travelassistant.model.response.ItineraryResponse;
+import com.example.travelassistant.model.response.TripPlanResponse;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.model.storage.QueryRepository;
+import com.example.travelassistant.model.storage.TravelQuery;
+import com.example.travelassistant.service.support.ForecastPromptEncoder;
+import com.example.travelassistant.service.support.PipelineMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Plano de viagem completo (bagagem + roteiro) com uma única busca de previsão e uma única chamada ao Gemini.
+ * O prompt combinado pede um JSON com as chaves "baggage" e "itinerary"; cada parte que não puder ser lida
+ * é substituída pelo seu fallback, de forma independente.
+ */
+@Service
+public class TripPlanService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripPlanService.class);
+
+    private static final String ENDPOINT = "viagem";
+
+    // Parte fixa do prompt (instruções e formato da resposta), enviada como systemInstruction;
+    // os campos de cada parte são os mesmos dos endpoints de bagagem e roteiro
+    static final String TRIP_INSTRUCTIONS =
+            "Você é um assistente de viagem especializado em recomendações de bagagem e roteiros baseados no clima. "
+                    + "Gere uma recomendação de bagagem e um roteiro detalhado para a viagem descrita na mensagem.\n\n"
+                    + "Responda com um único objeto JSON com duas chaves:\n\n"
+                    + "\"baggage\" - recomendação de bagagem com os campos:\n"
+                    + BaggageService.BAGGAGE_FIELDS + "\n"
+                    + "\"itinerary\" - roteiro com os campos:\n"
+                    + ItineraryService.ITINERARY_FIELDS + "\n"
+                    + GeminiAIService.JSON_ONLY_INSTRUCTION;
+
+    private final WeatherService weatherService;
+    private final GeminiAIService geminiAIService;
+    private final ItineraryService itineraryService;
+    private final QueryRepository queryRepository;
+    private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+    private final AppConfig appConfig;
+    private final PipelineMetrics metrics;
+    private final ForecastPromptEncoder forecastEncoder;
+
+    @Autowired
+    public TripPlanService(
+            WeatherService weatherService,
+            GeminiAIService geminiAIService,
+            ItineraryService itineraryService,
+            QueryRepository queryRepository,
+            ObjectMapper objectMapper,
+            Scheduler blockingScheduler,
+            AppConfig appConfig,
+            PipelineMetrics metrics,
+            ForecastPromptEncoder forecastEncoder) {
+        this.weatherService = weatherService;
+        this.geminiAIService = geminiAIService;
+        this.itineraryService = itineraryService;
+        this.queryRepository = queryRepository;
+        this.objectMapper = objectMapper;
+        this.blockingScheduler = blockingScheduler;
+        this.appConfig = appConfig;
+        this.metrics = metrics;
+        this.forecastEncoder = forecastEncoder;
+    }
+
+    public Mono<TripPlanResponse> planTrip(TripPlanRequest request) {
+        return Mono.defer(() -> {
+            TravelInfoRequest baggageRequest = toBaggageRequest(request);
+            ItineraryRequest itineraryRequest = toItineraryRequest(request);
+
+            // Get weather forecast for the destination
+            String location = WeatherService.location(request.getCity(), request.getCountry());
+            int days = WeatherService.forecastDays(request.getStartDate(), request.getEndDate());
+
+            return metrics.time(PipelineMetrics.STAGE_FORECAST, ENDPOINT, weatherService.getForecast(location, days))
+                    .flatMap(weatherResponse -> {
+                        String prompt = metrics.time(PipelineMetrics.STAGE_PROMPT, ENDPOINT,
+                                () -> buildTripPrompt(request, weatherResponse));
+
+                        // Os fallbacks são calculados em paralelo, para estarem prontos caso o Gemini estoure o prazo
+                        Mono<TripPlanResponse> fallback = Mono
+                                .fromCallable(() -> metrics.time(PipelineMetrics.STAGE_FALLBACK, ENDPOINT, () -> combine(
+                                        geminiAIService.generateFallbackBaggageRecommendation(baggageRequest, weatherResponse),
+                                        itineraryService.createFallbackResponse(itineraryRequest, weatherResponse))))
+                                .subscribeOn(Schedulers.parallel());
+
+                        Duration deadline = Duration.ofMillis(appConfig.getGeminiDeadlineItineraryMs());
+                        Mono<Optional<TripPlanResponse>> geminiResponse = metrics
+                                .time(PipelineMetrics.STAGE_GEMINI, ENDPOINT, geminiAIService.generateObject(
+                                        TRIP_INSTRUCTIONS, prompt, TripPlanResponse.class, deadline))
+                                .map(Optional::of)
+                                .defaultIfEmpty(Optional.empty());
+
+                        return Mono.zip(geminiResponse, fallback)
+                                .map(result -> toTripPlan(result.getT1(), result.getT2()))
+                                .doOnNext(response -> {
+                                    response.getBaggage().markReusedForecast(weatherResponse);
+                                    response.getItinerary().markReusedForecast(weatherResponse);
+                                });
+                    })
+                    // Save query to repository
+                    .flatMap(response -> metrics.time(PipelineMetrics.STAGE_SAVE, ENDPOINT,
+                                    Mono.fromRunnable(() -> saveQuery(request, response))
+                                            .subscribeOn(blockingScheduler))
+                            .thenReturn(response));
+        }).onErrorMap(e -> new RuntimeException("Erro ao gerar plano de viagem: " + e.getMessage(), e));
+    }
+
+    /**
+     * Parte variável do prompt (viagem e previsão); as instruções vão em {@link #TRIP_INSTRUCTIONS}.
+     */
+    String buildTripPrompt(TripPlanRequest request, WeatherResponse weatherResponse) {
+        StringBuilder prompt = new StringBuilder();
+
+        prompt.append("Destino: ").append(request.getCity()).append(", ").append(request.getCountry()).append("\n");
+        prompt.append("Período: ").append(request.getStartDate()).append(" a ").append(request.getEndDate()).append("\n");
+        prompt.append("Propósito da viagem: ").append(request.getTravelPurpose()).append("\n");
+        prompt.append("Preferências do usuário: ").append(request.getUserPreferences()).append("\n");
+        prompt.append("Interesses: ").append(request.getInterests()).append("\n");
+        prompt.append("Orçamento (1-5): ").append(request.getBudget()).append("\n");
+        prompt.append("Estilo de viagem: ").append(request.getTravelStyle()).append("\n\n");
+
+        forecastEncoder.append(prompt, weatherResponse);
+
+        return prompt.toString();
+    }
+
+    private TripPlanResponse toTripPlan(Optional<TripPlanResponse> geminiResponse, TripPlanResponse fallback) {
+        if (geminiResponse.isEmpty()) {
+            // Se a API Gemini falhou, não respondeu no prazo ou gerou um JSON inválido, use o modo fallback
+            log.warn("Usando modo fallback para plano de viagem");
+            metrics.recordFallback(ENDPOINT, "gemini");
+            return fallback;
+        }
+
+        return combine(
+                part(geminiResponse.get().getBaggage(), "baggage", fallback::getBaggage),
+                part(geminiResponse.get().getItinerary(), "itinerary", fallback::getItinerary));
+    }
+
+    private <T> T part(T value, String field, Supplier<T> fallback) {
+        if (value == null) {
+            log.warn("Resposta do Gemini sem a parte \"{}\", usando fallback", field);
+            metrics.recordParseFailure(ENDPOINT);
+            metrics.recordFallback(ENDPOINT, "parse");
+            return fallback.get();
+        }
+        return value;
+    }
+
+    private TripPlanResponse combine(BaggageRecommendationResponse baggage, ItineraryResponse itinerary) {
+        TripPlanResponse response = new TripPlanResponse();
+        response.setBaggage(baggage);
+        response.setItinerary(itinerary);
+        return response;
+    }
+
+    private TravelInfoRequest toBaggageRequest(TripPlanRequest request) {
+        TravelInfoRequest baggageRequest = new TravelInfoRequest();
+        baggageRequest.setCity(request.getCity());
+        baggageRequest.setCountry(request.getCountry());
+        baggageRequest.setStartDate(request.getStartDate());
+        baggageRequest.setEndDate(request.getEndDate());
+        baggageRequest.setTravelPurpose(request.getTravelPurpose());
+        baggageRequest.setUserPreferences(request.getUserPreferences());
+        return baggageRequest;
+    }
+
+    private ItineraryRequest toItineraryRequest(TripPlanRequest request) {
+        ItineraryRequest itineraryRequest = new ItineraryRequest();
+        itineraryRequest.setCity(request.getCity());
+        itineraryRequest.setCountry(request.getCountry());
+        itineraryRequest.setStartDate(request.getStartDate().format(DateTimeFormatter.ISO_DATE));
+        itineraryRequest.setEndDate(request.getEndDate().format(DateTimeFormatter.ISO_DATE));
+        itineraryRequest.setInterests(request.getInterests());
+        itineraryRequest.setBudget(request.getBudget());
+        itineraryRequest.setTravelStyle(request.getTravelStyle());
+        return itineraryRequest;
+    }
+
+    private void saveQuery(TripPlanRequest request, TripPlanResponse response) {
+        try {
+            TravelQuery query = new TravelQuery();
+            query.setDestination(request.getCity() + ", " + request.getCountry());
+            query.setStartDate(request.getStartDate().format(DateTimeFormatter.ISO_DATE));
+            query.setEndDate(request.getEndDate().format(DateTimeFormatter.ISO_DATE));
+            query.setRequestType(TravelQuery.TRIP);
+            query.setRequestJson(objectMapper.writeValueAsString(request));
+            query.setResponseJson(objectMapper.writeValueAsString(response));
+
+            queryRepository.save(query);
+        } catch (Exception e) {
+            // Log error but don't fail the request
+            log.error("Erro ao salvar consulta: {}", e.getMessage(), e);
+        }
+    }
+}
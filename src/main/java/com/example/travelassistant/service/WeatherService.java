@@ -3,60 +3,268 @@ package com.example.travelassistant.service;
 import com.example.travelassistant.config.AppConfig;
 import com.example.travelassistant.exception.ExternalApiException;
 import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.LocationCanonicalizer;
+import com.example.travelassistant.service.support.RequestHedger;
+import com.example.travelassistant.service.support.SingleFlight;
+import com.example.travelassistant.service.support.UpstreamGuard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class WeatherService {
 
+    private static final Logger log = LoggerFactory.getLogger(WeatherService.class);
+
+    // Máximo de dias de previsão aceito pela WeatherAPI
+    public static final int MAX_FORECAST_DAYS = 14;
+
     private final WebClient weatherApiClient;
     private final AppConfig appConfig;
+    private final ForecastCache forecastCache;
+    private final SingleFlight<String, WeatherResponse> weatherSingleFlight;
+    private final ForecastDecoder forecastDecoder;
+    private final UpstreamGuard weatherGuard;
+    private final RequestHedger weatherHedger;
+    private final LocationCanonicalizer canonicalizer;
+    // Localizações sem coordenadas na /search.json (sem resultado ou com falha), até quando não buscar de novo
+    private final Map<String, Instant> unresolved = new ConcurrentHashMap<>();
 
     @Autowired
-    public WeatherService(WebClient weatherApiClient, AppConfig appConfig) {
+    public WeatherService(
+            WebClient weatherApiClient,
+            AppConfig appConfig,
+            ForecastCache forecastCache,
+            SingleFlight<String, WeatherResponse> weatherSingleFlight,
+            ForecastDecoder forecastDecoder,
+            UpstreamGuard weatherGuard,
+            RequestHedger weatherHedger,
+            LocationCanonicalizer canonicalizer) {
         this.weatherApiClient = weatherApiClient;
         this.appConfig = appConfig;
+        this.forecastCache = forecastCache;
+        this.weatherSingleFlight = weatherSingleFlight;
+        this.forecastDecoder = forecastDecoder;
+        this.weatherGuard = weatherGuard;
+        this.weatherHedger = weatherHedger;
+        this.canonicalizer = canonicalizer;
     }
 
-    public WeatherResponse getCurrentWeather(String location) {
-        return weatherApiClient
-                .get()
-                .uri(uriBuilder -> uriBuilder
-                        .scheme("https")
-                        .host("api.weatherapi.com")
-                        .path("/v1/current.json")
-                        .queryParam("key", appConfig.getWeatherApiKey())
-                        .queryParam("q", location)
-                        .queryParam("aqi", "no")
-                        .build())
-                .retrieve()
-                .bodyToMono(WeatherResponse.class)
+    public Mono<WeatherResponse> getCurrentWeather(String location) {
+        return weatherGuard.execute(() -> weatherApiClient
+                        .get()
+                        .uri(appConfig.getWeatherApiUrl() + "/current.json", uriBuilder -> uriBuilder
+                                .queryParam("key", appConfig.getWeatherApiKey())
+                                .queryParam("q", location)
+                                .queryParam("aqi", "no")
+                                .build())
+                        .retrieve()
+                        .bodyToMono(WeatherResponse.class))
                 .onErrorResume(e -> Mono.error(new ExternalApiException(
                         "Erro ao buscar dados meteorológicos: " + e.getMessage(),
-                        "WeatherAPI")))
-                .block();
-    }
-
-    public WeatherResponse getForecast(String location, int days) {
-        return weatherApiClient
-                .get()
-                .uri(uriBuilder -> uriBuilder
-                        .scheme("https")
-                        .host("api.weatherapi.com")
-                        .path("/v1/forecast.json")
-                        .queryParam("key", appConfig.getWeatherApiKey())
-                        .queryParam("q", location)
-                        .queryParam("days", days)
-                        .queryParam("aqi", "no")
-                        .queryParam("alerts", "no")
-                        .build())
-                .retrieve()
-                .bodyToMono(WeatherResponse.class)
+                        "WeatherAPI")));
+    }
+
+    /**
+     * Retorna a previsão a partir do cache quando todos os dias pedidos estão disponíveis.
+     * Dias obsoletos são devolvidos imediatamente enquanto uma única atualização roda em segundo plano.
+     * Sem cache para a localização, tenta reaproveitar a previsão de um vizinho próximo antes de chamar a WeatherAPI.
+     */
+    public Mono<WeatherResponse> getForecast(String location, int days) {
+        return Mono.defer(() -> {
+            ForecastCache.Lookup cached = forecastCache.get(location, days);
+            if (cached != null) {
+                if (cached.isStale()) {
+                    refreshInBackground(location, days);
+                }
+                return Mono.just(cached.getResponse());
+            }
+
+            return nearbyForecast(location, days)
+                    .switchIfEmpty(Mono.defer(() -> fetchForecast(location, days)));
+        });
+    }
+
+    /**
+     * Previsão de uma localização vizinha já em cache (ver {@link ForecastCache#getNearby}), marcada com
+     * reusedFrom e reusedDistanceKm. As coordenadas vêm do {@link LocationCanonicalizer} ou, com
+     * weather.geo.resolve-unknown=true, da busca /search.json da WeatherAPI para uma localização nunca vista;
+     * qualquer falha cai na busca normal.
+     */
+    private Mono<WeatherResponse> nearbyForecast(String location, int days) {
+        if (!appConfig.isWeatherGeoEnabled() || !forecastCache.hasLocations()) {
+            return Mono.empty();
+        }
+
+        return coordinates(location)
+                .flatMap(destination -> Mono.justOrEmpty(forecastCache.getNearby(destination, days)))
+                .doOnNext(response -> log.debug("Previsão para {} reaproveitada de {} ({} km)",
+                        location, response.getReusedFrom(), response.getReusedDistanceKm()));
+    }
+
+    private Mono<LocationCanonicalizer.Canonical> coordinates(String location) {
+        LocationCanonicalizer.Canonical known = canonicalizer.find(location);
+        if (known != null) {
+            return Mono.just(known);
+        }
+        if (!appConfig.isWeatherGeoResolveUnknown() || isUnresolved(location)) {
+            return Mono.empty();
+        }
+
+        return weatherGuard.execute(() -> weatherApiClient
+                        .get()
+                        .uri(appConfig.getWeatherApiUrl() + "/search.json", uriBuilder -> uriBuilder
+                                .queryParam("key", appConfig.getWeatherApiKey())
+                                .queryParam("q", location)
+                                .build())
+                        .retrieve()
+                        .bodyToMono(WeatherResponse.Location[].class))
+                .flatMap(results -> {
+                    if (results.length == 0) {
+                        return Mono.empty();
+                    }
+                    canonicalizer.learn(location, results[0]);
+                    return Mono.justOrEmpty(canonicalizer.find(location));
+                })
+                .onErrorResume(e -> {
+                    log.debug("Falha ao buscar coordenadas de {}: {}", location, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromRunnable(() -> markUnresolved(location)));
+    }
+
+    private boolean isUnresolved(String location) {
+        String key = LocationCanonicalizer.fold(location);
+        Instant until = unresolved.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (Instant.now().isAfter(until)) {
+            unresolved.remove(key, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void markUnresolved(String location) {
+        Instant now = Instant.now();
+        if (unresolved.size() >= appConfig.getLocationCanonicalMaxEntries()) {
+            unresolved.values().removeIf(now::isAfter);
+        }
+        if (unresolved.size() < appConfig.getLocationCanonicalMaxEntries()) {
+            unresolved.put(LocationCanonicalizer.fold(location),
+                    now.plus(Duration.ofMinutes(appConfig.getWeatherGeoUnresolvedTtlMinutes())));
+        }
+    }
+
+    /**
+     * Chave canônica da localização: grafias diferentes do mesmo lugar compartilham cache e requisições.
+     */
+    public String locationKey(String location) {
+        return canonicalizer.canonicalKey(location);
+    }
+
+    /**
+     * Busca a previsão na WeatherAPI e a grava no cache, mesmo que os dias pedidos já estejam lá
+     * (usado pela pré-carga, ver {@link ForecastPrefetcher}).
+     */
+    public Mono<WeatherResponse> refreshForecast(String location, int days) {
+        return fetchForecast(location, days);
+    }
+
+    private void refreshInBackground(String location, int days) {
+        if (!forecastCache.tryStartRefresh(location)) {
+            return;
+        }
+
+        fetchForecast(location, days)
+                .doFinally(signal -> forecastCache.finishRefresh(location))
+                .subscribe(
+                        response -> { },
+                        e -> log.warn("Falha ao atualizar previsão em cache para {}: {}", location, e.getMessage()));
+    }
+
+    /**
+     * Chamadas simultâneas para a mesma localização e quantidade de dias compartilham uma única requisição,
+     * cujo resultado é gravado no cache uma única vez.
+     */
+    private Mono<WeatherResponse> fetchForecast(String location, int days) {
+        String key = locationKey(location) + "|" + days;
+        return weatherSingleFlight.execute(key, () -> requestForecast(location, days)
+                .doOnNext(response -> forecastCache.put(location, response)));
+    }
+
+    /**
+     * Busca a previsão e decodifica apenas o resumo diário usado pelos prompts e fallbacks
+     * (ver {@link ForecastDecoder}), à medida que o corpo chega e sem materializar os dados por hora.
+     * Corpos acima de weather.http.max-response-mb são recusados.
+     * Com o circuito aberto, falha imediatamente sem chamar a WeatherAPI.
+     * Com weather.hedge.enabled=true, uma requisição lenta é duplicada (ver {@link RequestHedger}).
+     */
+    private Mono<WeatherResponse> requestForecast(String location, int days) {
+        return weatherHedger.execute(() -> weatherGuard.execute(() -> {
+                    Flux<DataBuffer> body = weatherApiClient
+                            .get()
+                            .uri(appConfig.getWeatherApiUrl() + "/forecast.json", uriBuilder -> uriBuilder
+                                    .queryParam("key", appConfig.getWeatherApiKey())
+                                    .queryParam("q", location)
+                                    .queryParam("days", days)
+                                    .queryParam("aqi", "no")
+                                    .queryParam("alerts", "no")
+                                    .build())
+                            .retrieve()
+                            .bodyToFlux(DataBuffer.class);
+
+                    return forecastDecoder.decode(body, appConfig.getWeatherMaxResponseMb() * 1024L * 1024L);
+                }))
                 .onErrorResume(e -> Mono.error(new ExternalApiException(
                         "Erro ao buscar previsão meteorológica: " + e.getMessage(),
-                        "WeatherAPI")))
-                .block();
+                        "WeatherAPI")));
+    }
+
+    /**
+     * Localização da viagem no formato usado nas buscas de previsão ("cidade,país").
+     */
+    public static String location(String city, String country) {
+        return city + "," + country;
+    }
+
+    /**
+     * Dias de previsão para a viagem, incluindo o último dia, até o limite da WeatherAPI.
+     */
+    public static int forecastDays(LocalDate startDate, LocalDate endDate) {
+        long daysBetween = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        return (int) Math.min(daysBetween, MAX_FORECAST_DAYS);
+    }
+
+    /**
+     * Recorta a previsão para os primeiros {@code days} dias, reutilizando a localização e os dias originais.
+     */
+    public static WeatherResponse firstDays(WeatherResponse response, int days) {
+        if (response.getForecast() == null || response.getForecast().getForecastday() == null
+                || response.getForecast().getForecastday().size() <= days) {
+            return response;
+        }
+
+        WeatherResponse.Forecast forecast = new WeatherResponse.Forecast();
+        forecast.setForecastday(response.getForecast().getForecastday().subList(0, days));
+
+        WeatherResponse sliced = new WeatherResponse();
+        sliced.setLocation(response.getLocation());
+        sliced.setCurrent(response.getCurrent());
+        sliced.setForecast(forecast);
+        return sliced;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.example.travelassistant.service.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de chamadas simultâneas a um serviço externo, ajustado por AIMD.
+ * Cada resposta rápida e bem-sucedida aumenta o limite em 1/limite (cerca de +1 a cada "limite" respostas),
+ * desde que o limite esteja sendo usado; um erro ou uma resposta acima da latência alvo o multiplica por
+ * {@code backoffRatio}, no máximo uma vez por intervalo de latência alvo.
+ */
+public class AdaptiveConcurrencyLimit implements MeterBinder {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit,
+                                    Duration latencyTarget, double backoffRatio) {
+        this(name, initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit,
+                             Duration latencyTarget, double backoffRatio, LongSupplier nanoClock) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecrease = nanoClock.getAsLong() - latencyTargetNanos;
+    }
+
+    /**
+     * Reserva uma vaga. Retorna {@code false} se o limite atual já foi atingido.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Libera a vaga e ajusta o limite com base na latência e no resultado da chamada.
+     */
+    public synchronized void release(long durationNanos, boolean failure) {
+        inFlight--;
+
+        if (failure || durationNanos > latencyTargetNanos) {
+            long now = nanoClock.getAsLong();
+            if (now - lastDecrease >= latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecrease = now;
+            }
+        } else if (inFlight * 2 >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * Libera a vaga de uma chamada cancelada, sem ajustar o limite.
+     */
+    public synchronized void releaseIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("upstream.concurrency.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .description("Limite atual de chamadas simultâneas")
+                .tag("upstream", name)
+                .register(registry);
+        Gauge.builder("upstream.concurrency.in.flight", this, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Chamadas em andamento")
+                .tag("upstream", name)
+                .register(registry);
+        FunctionCounter.builder("upstream.concurrency.rejected", rejected, AtomicLong::get)
+                .description("Chamadas recusadas por exceder o limite de concorrência")
+                .tag("upstream", name)
+                .register(registry);
+    }
+}
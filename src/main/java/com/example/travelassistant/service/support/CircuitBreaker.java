@@ -0,0 +1,203 @@
+package com.example.travelassistant.service.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker baseado em uma janela deslizante com as últimas chamadas.
+ * Abre quando a taxa de erros ou a taxa de chamadas lentas da janela passa do limite; aberto, rejeita as chamadas
+ * até o fim do período de espera e então libera algumas chamadas de teste (meio aberto) antes de fechar de novo.
+ */
+public class CircuitBreaker implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // Janela circular: bit 0 = erro, bit 1 = lenta
+    private final byte[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final Map<State, AtomicLong> transitions = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, Duration slowCallDuration, Duration openDuration, int halfOpenCalls) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                slowCallDuration, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                   double slowCallRateThreshold, Duration slowCallDuration, Duration openDuration, int halfOpenCalls,
+                   LongSupplier nanoClock) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.outcomes = new byte[windowSize];
+        for (State target : State.values()) {
+            transitions.put(target, new AtomicLong());
+        }
+    }
+
+    /**
+     * Retorna {@code false} se a chamada deve ir direto para o fallback.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * Registra o resultado de uma chamada autorizada por {@link #tryAcquirePermission()}.
+     */
+    public synchronized void onResult(long durationNanos, boolean failure) {
+        boolean slow = durationNanos >= slowCallNanos;
+
+        switch (state) {
+            case HALF_OPEN -> {
+                if (failure || slow) {
+                    open();
+                } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                    resetWindow();
+                }
+            }
+            case CLOSED -> {
+                record(failure, slow);
+                if (recorded >= minimumCalls
+                        && (failures * 100.0 / recorded >= failureRateThreshold
+                        || slowCalls * 100.0 / recorded >= slowCallRateThreshold)) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // Resultado atrasado de uma chamada iniciada antes da abertura: não altera o estado
+            }
+        }
+    }
+
+    /**
+     * Devolve a permissão de uma chamada cancelada ou não executada, sem contar como sucesso nem erro.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls - halfOpenSuccesses) {
+            halfOpenPermits++;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("upstream.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("Estado do circuit breaker (0 = fechado, 1 = aberto, 2 = meio aberto)")
+                .tag("upstream", name)
+                .register(registry);
+        FunctionCounter.builder("upstream.circuit.rejected", rejected, AtomicLong::get)
+                .description("Chamadas enviadas direto para o fallback pelo circuit breaker")
+                .tag("upstream", name)
+                .register(registry);
+        transitions.forEach((target, count) -> FunctionCounter.builder("upstream.circuit.transitions", count, AtomicLong::get)
+                .description("Transições de estado do circuit breaker")
+                .tag("upstream", name)
+                .tag("state", target.name().toLowerCase())
+                .register(registry));
+    }
+
+    private void open() {
+        transitionTo(State.OPEN);
+        openedAt = nanoClock.getAsLong();
+        resetWindow();
+    }
+
+    private void transitionTo(State target) {
+        if (state != target) {
+            log.warn("Circuit breaker {}: {} -> {}", name, state, target);
+            state = target;
+            transitions.get(target).incrementAndGet();
+        }
+    }
+
+    private void record(boolean failure, boolean slow) {
+        if (recorded == windowSize) {
+            byte evicted = outcomes[position];
+            failures -= evicted & 1;
+            slowCalls -= (evicted >> 1) & 1;
+        } else {
+            recorded++;
+        }
+
+        byte outcome = (byte) ((failure ? 1 : 0) | (slow ? 2 : 0));
+        outcomes[position] = outcome;
+        failures += outcome & 1;
+        slowCalls += (outcome >> 1) & 1;
+        position = (position + 1) % windowSize;
+    }
+
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
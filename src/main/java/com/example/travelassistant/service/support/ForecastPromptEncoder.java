@@ -0,0 +1,119 @@
+package com.example.travelassistant.service.support;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.response.WeatherResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Trecho de previsão dos prompts enviados ao Gemini, compartilhado pelos serviços de bagagem, roteiro e viagem.
+ * O formato compacto (padrão) escreve uma linha por dia em uma tabela separada por "|", com o cabeçalho das colunas
+ * uma única vez e as temperaturas arredondadas para prompt.forecast.precision casas decimais; em uma viagem de 14 dias
+ * ele usa cerca de um terço dos tokens da frase por dia do formato verboso, mantido para comparação.
+ */
+@Component
+public class ForecastPromptEncoder {
+
+    public enum Format {
+        VERBOSE,
+        COMPACT
+    }
+
+    private final Format format;
+    private final int precision;
+    private final long scale;
+
+    @Autowired
+    public ForecastPromptEncoder(AppConfig appConfig) {
+        this(Format.valueOf(appConfig.getPromptForecastFormat().toUpperCase(Locale.ROOT)),
+                appConfig.getPromptForecastPrecision());
+    }
+
+    public ForecastPromptEncoder(Format format, int precision) {
+        this.format = format;
+        this.precision = Math.max(0, Math.min(precision, 3));
+        this.scale = (long) Math.pow(10, this.precision);
+    }
+
+    /**
+     * Acrescenta ao prompt a previsão diária do período, no formato configurado.
+     */
+    public void append(StringBuilder prompt, WeatherResponse weatherResponse) {
+        if (format == Format.VERBOSE) {
+            appendVerbose(prompt, weatherResponse);
+        } else {
+            appendCompact(prompt, weatherResponse);
+        }
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    private void appendCompact(StringBuilder prompt, WeatherResponse weatherResponse) {
+        prompt.append("Previsão diária (data|mín °C|máx °C|chuva %|condição):\n");
+        if (weatherResponse.getForecast() == null || weatherResponse.getForecast().getForecastday() == null) {
+            return;
+        }
+
+        for (WeatherResponse.ForecastDay day : weatherResponse.getForecast().getForecastday()) {
+            prompt.append(day.getDate()).append('|');
+            appendTemperature(prompt, day.getDay().getMintempC());
+            prompt.append('|');
+            appendTemperature(prompt, day.getDay().getMaxtempC());
+            prompt.append('|').append(day.getDay().getDailyChanceOfRain()).append('|');
+            appendCondition(prompt, day.getDay().getCondition());
+            prompt.append('\n');
+        }
+    }
+
+    private void appendVerbose(StringBuilder prompt, WeatherResponse weatherResponse) {
+        prompt.append("Dados meteorológicos para o período:\n");
+        if (weatherResponse.getForecast() == null || weatherResponse.getForecast().getForecastday() == null) {
+            return;
+        }
+
+        for (WeatherResponse.ForecastDay day : weatherResponse.getForecast().getForecastday()) {
+            prompt.append("- ").append(day.getDate()).append(": ");
+            prompt.append("Temperatura mín: ").append(day.getDay().getMintempC()).append("°C, ");
+            prompt.append("máx: ").append(day.getDay().getMaxtempC()).append("°C. ");
+            prompt.append("Condição: ");
+            appendCondition(prompt, day.getDay().getCondition());
+            prompt.append(". ");
+            prompt.append("Chance de chuva: ").append(day.getDay().getDailyChanceOfRain()).append("%\n");
+        }
+    }
+
+    /**
+     * Temperatura com a precisão configurada, sem passar por String.format nem criar objetos intermediários.
+     */
+    private void appendTemperature(StringBuilder prompt, double value) {
+        long scaled = Math.round(value * scale);
+        if (scaled < 0) {
+            prompt.append('-');
+            scaled = -scaled;
+        }
+        prompt.append(scaled / scale);
+        if (precision > 0) {
+            prompt.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                prompt.append((char) ('0' + fraction / digit % 10));
+            }
+        }
+    }
+
+    private static void appendCondition(StringBuilder prompt, WeatherResponse.Condition condition) {
+        if (condition == null || condition.getText() == null) {
+            return;
+        }
+        String text = condition.getText().trim();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            // O separador e as quebras de linha quebrariam a tabela
+            prompt.append(c == '|' || c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.travelassistant.service.support;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * responseSchema do Gemini (subconjunto do OpenAPI) gerado a partir das propriedades que o Jackson enxerga no modelo,
+ * de modo que o JSON devolvido pela API desserialize sem ajustes na mesma classe.
+ * Todas as propriedades são obrigatórias e seguem a ordem de declaração (propertyOrdering), a mesma das instruções
+ * dos prompts. O schema de cada classe é gerado uma única vez.
+ */
+public final class GeminiResponseSchema {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Map<Class<?>, ObjectNode> schemas = new ConcurrentHashMap<>();
+
+    private GeminiResponseSchema() {
+    }
+
+    public static ObjectNode of(Class<?> type) {
+        return schemas.computeIfAbsent(type, key -> schema(objectMapper.constructType(key), new HashSet<>()));
+    }
+
+    private static ObjectNode schema(JavaType type, Set<Class<?>> path) {
+        ObjectNode schema = objectMapper.createObjectNode();
+        Class<?> raw = type.getRawClass();
+
+        if (type.isArrayType() || type.isCollectionLikeType()) {
+            schema.put("type", "ARRAY");
+            schema.set("items", schema(type.getContentType(), path));
+        } else if (raw == String.class || raw == Character.class || raw == char.class) {
+            schema.put("type", "STRING");
+        } else if (raw.isEnum()) {
+            schema.put("type", "STRING");
+            schema.put("format", "enum");
+            ArrayNode values = schema.putArray("enum");
+            for (Object constant : raw.getEnumConstants()) {
+                values.add(constant.toString());
+            }
+        } else if (raw == boolean.class || raw == Boolean.class) {
+            schema.put("type", "BOOLEAN");
+        } else if (raw == int.class || raw == long.class || raw == short.class || raw == byte.class
+                || raw == Integer.class || raw == Long.class || raw == Short.class || raw == Byte.class) {
+            schema.put("type", "INTEGER");
+        } else if (raw.isPrimitive() || Number.class.isAssignableFrom(raw)) {
+            schema.put("type", "NUMBER");
+        } else if (type.isMapLikeType()) {
+            throw new IllegalArgumentException("Mapas não têm representação no responseSchema: " + type);
+        } else {
+            if (!path.add(raw)) {
+                throw new IllegalArgumentException("Tipo recursivo não suportado no responseSchema: " + raw.getName());
+            }
+            schema.put("type", "OBJECT");
+            ObjectNode properties = schema.putObject("properties");
+            ArrayNode required = schema.putArray("required");
+            ArrayNode ordering = schema.putArray("propertyOrdering");
+
+            BeanDescription description = objectMapper.getDeserializationConfig().introspect(type);
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                if (!property.couldDeserialize()) {
+                    continue;
+                }
+                properties.set(property.getName(), schema(property.getPrimaryType(), path));
+                required.add(property.getName());
+                ordering.add(property.getName());
+            }
+            path.remove(raw);
+        }
+        return schema;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.travelassistant.service.support;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice espacial de chaves por coordenada, em baldes de geohash.
+ * A precisão do geohash é escolhida para que a altura de uma célula cubra o raio de busca; uma consulta percorre
+ * só as células que cobrem o retângulo do raio (tipicamente 3 x 3) e filtra os candidatos pela distância real.
+ */
+public class GeoIndex {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final double radiusKm;
+    private final int precision;
+    private final double cellLat;
+    private final double cellLon;
+    private final Map<String, Set<String>> cells = new ConcurrentHashMap<>();
+    private final Map<String, Point> points = new ConcurrentHashMap<>();
+
+    public GeoIndex(double radiusKm) {
+        this.radiusKm = radiusKm;
+        this.precision = precisionFor(radiusKm);
+        int bits = precision * 5;
+        this.cellLat = 180.0 / (1L << (bits / 2));
+        this.cellLon = 360.0 / (1L << (bits - bits / 2));
+    }
+
+    /**
+     * Inclui ou move a chave para a coordenada informada.
+     */
+    public void put(String key, double lat, double lon) {
+        Point point = new Point(key, lat, lon, encode(lat, lon, precision));
+        Point previous = points.put(key, point);
+        if (previous != null && !previous.cell.equals(point.cell)) {
+            cells.computeIfPresent(previous.cell, (cell, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        cells.computeIfAbsent(point.cell, cell -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    /**
+     * Chaves a até {@code radiusKm} da coordenada, da mais próxima para a mais distante.
+     */
+    public List<Match> nearby(double lat, double lon) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lonDelta = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+
+        List<Match> matches = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (double cellLatitude = lat - latDelta; cellLatitude < lat + latDelta + cellLat; cellLatitude += cellLat) {
+            double boundedLat = Math.max(-90, Math.min(90, Math.min(cellLatitude, lat + latDelta)));
+            for (double cellLongitude = lon - lonDelta; cellLongitude < lon + lonDelta + cellLon; cellLongitude += cellLon) {
+                double boundedLon = Math.min(cellLongitude, lon + lonDelta);
+                Set<String> keys = cells.get(encode(boundedLat, wrap(boundedLon), precision));
+                if (keys == null) {
+                    continue;
+                }
+                for (String key : keys) {
+                    Point point = points.get(key);
+                    double distance = point == null ? Double.MAX_VALUE : distanceKm(lat, lon, point.lat, point.lon);
+                    if (distance <= radiusKm && seen.add(key)) {
+                        matches.add(new Match(key, distance));
+                    }
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches;
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Geohash padrão (base32, bits de longitude e latitude intercalados começando pela longitude).
+     */
+    static String encode(double lat, double lon, int precision) {
+        double minLat = -90;
+        double maxLat = 90;
+        double minLon = -180;
+        double maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(value));
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Maior precisão (células menores) cuja altura ainda cobre o raio.
+     */
+    private static int precisionFor(double radiusKm) {
+        int precision = 1;
+        while (precision < 12) {
+            int bits = (precision + 1) * 5;
+            double heightKm = 180.0 / (1L << (bits / 2)) * KM_PER_DEGREE;
+            if (heightKm < radiusKm) {
+                break;
+            }
+            precision++;
+        }
+        return precision;
+    }
+
+    private static double wrap(double lon) {
+        if (lon > 180) {
+            return lon - 360;
+        }
+        return lon < -180 ? lon + 360 : lon;
+    }
+
+    private record Point(String key, double lat, double lon, String cell) {
+    }
+
+    public record Match(String key, double distanceKm) {
+    }
+}
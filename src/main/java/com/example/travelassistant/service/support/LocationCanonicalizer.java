@@ -0,0 +1,212 @@
+package com.example.travelassistant.service.support;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.response.WeatherResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Chave canônica de localização usada pelo cache de previsões, pelo single-flight e pelo índice de destinos
+ * do histórico.
+ * A entrada é dobrada (sem acentos, minúsculas, pontuação e espaços normalizados) e o país é trocado pelo nome
+ * canônico a partir de uma tabela de apelidos (nomes em inglês e português, códigos ISO de 2 e 3 letras),
+ * de modo que "São Paulo,Brasil", "sao paulo,BR" e "Sao Paulo , Brazil" resultam na mesma chave.
+ * Códigos de 2 letras que também são siglas de estados dos EUA, províncias do Canadá ou estados da Austrália
+ * ("Springfield, MO", "Los Angeles, CA") ficam como foram digitados.
+ * Além disso, cada resposta da WeatherAPI ensina a localização que ela resolveu (nome, região, país e coordenadas):
+ * entradas diferentes que levam ao mesmo ponto passam a compartilhar uma única chave, resolvida em O(1), e lugares
+ * homônimos no mesmo país (Springfield, Illinois e Springfield, Missouri) ficam com chaves diferentes.
+ */
+@Component
+public class LocationCanonicalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N},]+");
+    // Siglas de estados dos EUA, províncias do Canadá e estados da Austrália que coincidem com códigos ISO de país
+    private static final Set<String> REGION_CODES = Set.of(
+            "al", "ar", "az", "ca", "co", "de", "ga", "id", "il", "in", "ky", "la", "ma", "md", "me", "mn", "mo", "ms",
+            "mt", "nc", "ne", "pa", "sc", "sd", "tn", "va", "nl", "nu", "pe", "sk", "yt", "sa");
+    private static final Map<String, String> COUNTRY_ALIASES = countryAliases();
+
+    private final Map<String, Canonical> resolved = new ConcurrentHashMap<>();
+    private final Map<String, Canonical> byCoordinates = new ConcurrentHashMap<>();
+    // Formas dobradas já resolvidas para cada chave canônica (pode conter formas que depois mudaram de chave)
+    private final Map<String, Set<String>> foldedByKey = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    @Autowired
+    public LocationCanonicalizer(AppConfig appConfig) {
+        this.maxEntries = appConfig.getLocationCanonicalMaxEntries();
+    }
+
+    /**
+     * Chave canônica da entrada: a aprendida com a WeatherAPI, se houver, ou a forma dobrada.
+     */
+    public String canonicalKey(String raw) {
+        String folded = fold(raw);
+        Canonical canonical = resolved.get(folded);
+        return canonical == null ? folded : canonical.key();
+    }
+
+    /**
+     * Localização aprendida para a entrada, ou {@code null} se ela ainda não foi resolvida pela WeatherAPI.
+     */
+    public Canonical find(String raw) {
+        return resolved.get(fold(raw));
+    }
+
+    /**
+     * Registra a localização que a WeatherAPI devolveu para a entrada e retorna a chave canônica.
+     * A chave vem do nome, da região e do país devolvidos; a forma dobrada de "nome, país" passa a apontar para a
+     * primeira localização aprendida com ela.
+     * Localizações com as mesmas coordenadas (arredondadas a ~1 km) ficam com a chave da primeira aprendida.
+     * Com o índice cheio (location.canonical.max-entries), novas entradas deixam de ser aprendidas.
+     */
+    public String learn(String raw, WeatherResponse.Location location) {
+        String folded = fold(raw);
+        if (location == null || location.getName() == null || location.getName().isBlank()) {
+            return canonicalKey(raw);
+        }
+
+        Canonical learned = new Canonical(identity(location), location.getName(), location.getRegion(),
+                location.getCountry(), location.getLat(), location.getLon());
+        String nameAndCountry = fold(location.getName() + "," + location.getCountry());
+        Canonical canonical = byCoordinates.size() < maxEntries
+                ? byCoordinates.computeIfAbsent(coordinates(location), key -> learned)
+                : byCoordinates.getOrDefault(coordinates(location), learned);
+
+        if (resolved.size() < maxEntries || resolved.containsKey(folded)) {
+            resolved.put(folded, canonical);
+            resolved.putIfAbsent(learned.key(), canonical);
+            resolved.putIfAbsent(nameAndCountry, canonical);
+            Set<String> aliases = foldedByKey.computeIfAbsent(canonical.key(), key -> ConcurrentHashMap.newKeySet());
+            aliases.add(folded);
+            aliases.add(learned.key());
+            aliases.add(nameAndCountry);
+        }
+        return canonical.key();
+    }
+
+    /**
+     * Formas dobradas que resolvem hoje para a chave canônica, incluindo a própria chave.
+     * Permite que índices gravados pela forma dobrada (estável) sejam consultados pela chave canônica,
+     * que muda à medida que a WeatherAPI ensina novas localizações.
+     */
+    public Set<String> aliases(String canonicalKey) {
+        Set<String> aliases = new HashSet<>();
+        aliases.add(canonicalKey);
+        for (String folded : foldedByKey.getOrDefault(canonicalKey, Set.of())) {
+            Canonical canonical = resolved.get(folded);
+            if (canonical != null && canonical.key().equals(canonicalKey)) {
+                aliases.add(folded);
+            }
+        }
+        return aliases;
+    }
+
+    public int size() {
+        return resolved.size();
+    }
+
+    /**
+     * Forma dobrada da localização: sem acentos, em minúsculas, com as partes separadas por vírgula
+     * e o país (última parte) substituído pelo nome canônico quando conhecido.
+     */
+    public static String fold(String raw) {
+        if (raw == null) {
+            return "";
+        }
+
+        String text = MARKS.matcher(Normalizer.normalize(raw, Normalizer.Form.NFD)).replaceAll("");
+        text = SEPARATORS.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ");
+
+        List<String> parts = new ArrayList<>(3);
+        for (String part : text.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                parts.add(trimmed);
+            }
+        }
+
+        if (parts.size() > 1) {
+            int last = parts.size() - 1;
+            parts.set(last, COUNTRY_ALIASES.getOrDefault(parts.get(last), parts.get(last)));
+        }
+        return String.join(",", parts);
+    }
+
+    /**
+     * Chave de uma localização resolvida: nome, região (quando houver) e país.
+     */
+    private static String identity(WeatherResponse.Location location) {
+        String region = location.getRegion();
+        return fold(region == null || region.isBlank()
+                ? location.getName() + "," + location.getCountry()
+                : location.getName() + "," + region + "," + location.getCountry());
+    }
+
+    private static String coordinates(WeatherResponse.Location location) {
+        return Math.round(location.getLat() * 100) + ":" + Math.round(location.getLon() * 100);
+    }
+
+    /**
+     * Apelidos de país para o nome em inglês dobrado: nomes em inglês e português do JDK, códigos ISO
+     * e as variantes usadas pela WeatherAPI e mais comuns nas requisições.
+     */
+    private static Map<String, String> countryAliases() {
+        Map<String, String> aliases = new HashMap<>();
+        Locale portuguese = Locale.of("pt", "BR");
+
+        for (String code : Locale.getISOCountries()) {
+            Locale country = Locale.of("", code);
+            String canonical = countryName(code);
+            if (!REGION_CODES.contains(code.toLowerCase(Locale.ROOT))) {
+                aliases.put(code.toLowerCase(Locale.ROOT), canonical);
+            }
+            aliases.put(country.getISO3Country().toLowerCase(Locale.ROOT), canonical);
+            aliases.put(canonical, canonical);
+            aliases.putIfAbsent(foldCountry(country.getDisplayCountry(portuguese)), canonical);
+        }
+
+        String unitedStates = countryName("US");
+        String unitedKingdom = countryName("GB");
+        aliases.put("usa", unitedStates);
+        aliases.put("eua", unitedStates);
+        aliases.put("united states of america", unitedStates);
+        aliases.put("estados unidos da america", unitedStates);
+        aliases.put("uk", unitedKingdom);
+        aliases.put("england", unitedKingdom);
+        aliases.put("inglaterra", unitedKingdom);
+        aliases.put("great britain", unitedKingdom);
+        aliases.put("gra bretanha", unitedKingdom);
+        aliases.put("holanda", countryName("NL"));
+        return Map.copyOf(aliases);
+    }
+
+    private static String countryName(String code) {
+        return foldCountry(Locale.of("", code).getDisplayCountry(Locale.ENGLISH));
+    }
+
+    private static String foldCountry(String name) {
+        String text = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").replace(",", " ").trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Localização resolvida pela WeatherAPI: chave canônica, nome, região, país e coordenadas.
+     */
+    public record Canonical(String key, String name, String region, String country, double lat, double lon) {
+    }
+}
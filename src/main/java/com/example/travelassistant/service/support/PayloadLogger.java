@@ -0,0 +1,78 @@
+package com.example.travelassistant.service.support;
+
+import com.example.travelassistant.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Log dos corpos trocados com os serviços externos.
+ * Por padrão, só um resumo truncado é gravado em DEBUG; o corpo completo (limitado a {@code full-max-chars})
+ * é gravado em INFO para uma amostra das trocas ({@code sample-rate}) e em WARN sempre que a chamada falha.
+ * Os corpos só são convertidos em texto quando alguma dessas saídas está habilitada.
+ */
+@Component
+public class PayloadLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(PayloadLogger.class);
+
+    private final int maxChars;
+    private final int fullMaxChars;
+    private final double sampleRate;
+
+    @Autowired
+    public PayloadLogger(AppConfig appConfig) {
+        this.maxChars = appConfig.getLoggingPayloadMaxChars();
+        this.fullMaxChars = appConfig.getLoggingPayloadFullMaxChars();
+        this.sampleRate = appConfig.getLoggingPayloadSampleRate();
+    }
+
+    /**
+     * Inicia o registro de uma troca; a decisão de amostragem vale para a requisição e a resposta.
+     */
+    public Exchange start(String upstream, String requestPayload) {
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (sampled) {
+            log.info("{} requisição (amostra): {}", upstream, truncate(requestPayload, fullMaxChars));
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} requisição: {}", upstream, truncate(requestPayload, maxChars));
+        }
+        return new Exchange(upstream, requestPayload, sampled);
+    }
+
+    public class Exchange {
+        private final String upstream;
+        private final String requestPayload;
+        private final boolean sampled;
+
+        Exchange(String upstream, String requestPayload, boolean sampled) {
+            this.upstream = upstream;
+            this.requestPayload = requestPayload;
+            this.sampled = sampled;
+        }
+
+        public void response(Supplier<String> responsePayload) {
+            if (sampled) {
+                log.info("{} resposta (amostra): {}", upstream, truncate(responsePayload.get(), fullMaxChars));
+            } else if (log.isDebugEnabled()) {
+                log.debug("{} resposta: {}", upstream, truncate(responsePayload.get(), maxChars));
+            }
+        }
+
+        public void failure(Throwable error) {
+            log.warn("{} falhou ({}); requisição: {}", upstream, error.getMessage(),
+                    truncate(requestPayload, fullMaxChars));
+        }
+    }
+
+    static String truncate(String payload, int limit) {
+        if (payload == null || payload.length() <= limit) {
+            return payload;
+        }
+        return payload.substring(0, limit) + "... (" + payload.length() + " caracteres)";
+    }
+}
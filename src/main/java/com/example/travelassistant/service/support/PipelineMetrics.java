@@ -0,0 +1,93 @@
+package com.example.travelassistant.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.function.Supplier;
+
+/**
+ * Métricas por etapa do pipeline de geração (previsão, prompt, Gemini, parse, fallback, gravação),
+ * marcadas pelo endpoint de origem. Os timers publicam histogramas para o cálculo de percentis no Prometheus.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_FORECAST = "forecast";
+    public static final String STAGE_PROMPT = "prompt";
+    public static final String STAGE_GEMINI = "gemini";
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_FALLBACK = "fallback";
+    public static final String STAGE_SAVE = "save";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Mede do momento da inscrição até o término (sucesso, erro ou cancelamento) do Mono.
+     */
+    public <T> Mono<T> time(String stage, String endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.doFinally(signal -> sample.stop(timer(stage, endpoint, outcome(signal))));
+        });
+    }
+
+    public <T> T time(String stage, String endpoint, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(stage, endpoint, outcome));
+        }
+    }
+
+    /**
+     * Resposta gerada pelo fallback local. {@code reason}: "gemini" (falha, prazo ou circuito aberto) ou "parse".
+     */
+    public void recordFallback(String endpoint, String reason) {
+        Counter.builder("travel.fallback")
+                .description("Respostas geradas pelo fallback local")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordParseFailure(String endpoint) {
+        Counter.builder("travel.parse.failures")
+                .description("Respostas do Gemini que não puderam ser convertidas no modelo esperado")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer timer(String stage, String endpoint, String outcome) {
+        return Timer.builder("travel.stage")
+                .description("Duração de cada etapa do pipeline de geração")
+                .tag("stage", stage)
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case CANCEL -> "cancelled";
+            default -> "error";
+        };
+    }
+}
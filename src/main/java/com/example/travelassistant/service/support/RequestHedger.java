@@ -0,0 +1,163 @@
+package com.example.travelassistant.service.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Envia uma segunda requisição idêntica quando a primeira não responde dentro do percentil configurado
+ * da latência recente, e fica com a que responder primeiro (a outra é cancelada).
+ * Só deve ser usado em chamadas idempotentes.
+ * O volume de requisições extras é limitado por um orçamento: cada requisição acumula {@code budgetPercent}/100
+ * de crédito e cada hedge consome um crédito inteiro.
+ */
+public class RequestHedger implements MeterBinder {
+
+    private static final int SAMPLE_SIZE = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final double MAX_BUDGET = 10;
+
+    private final String name;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double budgetRatio;
+
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private int position;
+    private int recorded;
+    private int sinceRecompute;
+    private volatile long delayNanos = -1;
+    private double budget;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    public RequestHedger(String name, boolean enabled, double percentile, Duration minDelay, Duration maxDelay,
+                         double budgetPercent) {
+        this.name = name;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budgetRatio = budgetPercent / 100.0;
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        return Mono.defer(() -> {
+            requests.incrementAndGet();
+            long delay = delayNanos;
+            boolean hedgeable = depositBudget() && delay >= 0;
+
+            Mono<T> primary = timed(call.get());
+            if (!hedgeable) {
+                return primary;
+            }
+
+            // Erros do hedge não vencem a corrida: o resultado fica com a requisição original
+            Mono<T> hedge = Mono.delay(Duration.ofNanos(delay))
+                    .flatMap(tick -> {
+                        if (!withdrawBudget()) {
+                            return Mono.<T>never();
+                        }
+                        hedgesSent.incrementAndGet();
+                        return timed(call.get())
+                                .doOnNext(value -> hedgesWon.incrementAndGet())
+                                .onErrorResume(e -> Mono.never());
+                    });
+
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    /**
+     * Atraso atual antes do hedge, ou {@code null} enquanto não houver amostras suficientes.
+     */
+    public Duration getDelay() {
+        long delay = delayNanos;
+        return delay < 0 ? null : Duration.ofNanos(delay);
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("upstream.hedge.requests", requests, AtomicLong::get)
+                .description("Requisições elegíveis para hedge")
+                .tag("upstream", name)
+                .register(registry);
+        FunctionCounter.builder("upstream.hedge.sent", hedgesSent, AtomicLong::get)
+                .description("Requisições duplicadas enviadas")
+                .tag("upstream", name)
+                .register(registry);
+        FunctionCounter.builder("upstream.hedge.won", hedgesWon, AtomicLong::get)
+                .description("Requisições duplicadas que responderam antes da original")
+                .tag("upstream", name)
+                .register(registry);
+        Gauge.builder("upstream.hedge.delay", this, hedger -> hedger.delayNanos < 0 ? Double.NaN : hedger.delayNanos / 1_000_000.0)
+                .description("Atraso atual antes do hedge, em milissegundos")
+                .tag("upstream", name)
+                .register(registry);
+    }
+
+    private <T> Mono<T> timed(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnNext(value -> record(System.nanoTime() - start));
+        });
+    }
+
+    private synchronized void record(long latencyNanos) {
+        samples[position] = latencyNanos;
+        position = (position + 1) % SAMPLE_SIZE;
+        if (recorded < SAMPLE_SIZE) {
+            recorded++;
+        }
+
+        if (recorded >= MIN_SAMPLES && (delayNanos < 0 || ++sinceRecompute >= RECOMPUTE_EVERY)) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, recorded);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * recorded) - 1;
+            long value = sorted[Math.max(0, Math.min(recorded - 1, index))];
+            delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+        }
+    }
+
+    private synchronized boolean depositBudget() {
+        budget = Math.min(MAX_BUDGET, budget + budgetRatio);
+        return budget >= 1;
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+}
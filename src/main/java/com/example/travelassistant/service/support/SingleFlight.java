@@ -0,0 +1,86 @@
+package com.example.travelassistant.service.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas concorrentes com a mesma chave em uma única chamada ao serviço externo.
+ * Todos os chamadores recebem o mesmo resultado ou o mesmo erro; a chave é liberada assim que a chamada termina.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            requests.incrementAndGet();
+
+            AtomicReference<Mono<V>> self = new AtomicReference<>();
+            Mono<V> candidate = Mono.defer(call)
+                    .doFinally(signal -> inFlight.remove(key, self.get()))
+                    .cache();
+            self.set(candidate);
+
+            Mono<V> existing = inFlight.putIfAbsent(key, candidate);
+            if (existing != null) {
+                coalesced.incrementAndGet();
+                return existing;
+            }
+            return candidate;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Total de chamadas recebidas, incluindo as que foram agrupadas.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Chamadas que reutilizaram uma chamada já em andamento.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("upstream.singleflight.requests", requests, AtomicLong::get)
+                .description("Chamadas recebidas, incluindo as agrupadas")
+                .tag("upstream", name)
+                .register(registry);
+        FunctionCounter.builder("upstream.singleflight.coalesced", coalesced, AtomicLong::get)
+                .description("Chamadas que reutilizaram uma chamada já em andamento")
+                .tag("upstream", name)
+                .register(registry);
+        Gauge.builder("upstream.singleflight.in.flight", inFlight, Map::size)
+                .description("Chaves com chamada em andamento")
+                .tag("upstream", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.travelassistant.service.support;
+
+import com.example.travelassistant.exception.ExternalApiException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Protege as chamadas a um serviço externo com um {@link CircuitBreaker} e um {@link AdaptiveConcurrencyLimit}.
+ * Chamadas recusadas falham imediatamente com {@link ExternalApiException}, sem tocar na rede,
+ * para que o chamador siga direto para o fallback.
+ * Cada chamada tem um tempo máximo ({@code callTimeout}); uma chamada presa no serviço externo termina com
+ * {@link java.util.concurrent.TimeoutException}, conta como falha e devolve a vaga do limite de concorrência.
+ */
+public class UpstreamGuard {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Predicate<Throwable> isFailure;
+    private final Duration callTimeout;
+
+    /**
+     * @param isFailure   decide quais erros contam contra o serviço externo (erros do próprio pedido, como 400, não contam)
+     * @param callTimeout tempo máximo de uma chamada; no streaming, da chamada até o primeiro elemento e entre elementos
+     */
+    public UpstreamGuard(String name, CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimit concurrencyLimit,
+                         Predicate<Throwable> isFailure, Duration callTimeout) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.concurrencyLimit = concurrencyLimit;
+        this.isFailure = isFailure;
+        this.callTimeout = callTimeout;
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Permit permit = acquire();
+            return start(permit, call)
+                    .timeout(callTimeout)
+                    .doOnSuccess(value -> permit.complete(false))
+                    .doOnError(e -> permit.complete(isFailure.test(e)))
+                    .doOnCancel(permit::cancel);
+        });
+    }
+
+    public <T> Flux<T> executeMany(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Permit permit = acquire();
+            return start(permit, call)
+                    .timeout(callTimeout)
+                    .doOnComplete(() -> permit.complete(false))
+                    .doOnError(e -> permit.complete(isFailure.test(e)))
+                    .doOnCancel(permit::cancel);
+        });
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * Monta a chamada já com a vaga reservada; se o supplier falhar antes de devolver o publisher, a vaga é devolvida.
+     */
+    private static <P> P start(Permit permit, Supplier<P> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            permit.cancel();
+            throw e;
+        }
+    }
+
+    private Permit acquire() {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new ExternalApiException("Circuito aberto para " + name + ", usando fallback", name);
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            circuitBreaker.onIgnored();
+            throw new ExternalApiException("Limite de chamadas simultâneas atingido para " + name, name);
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    private class Permit {
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(long start) {
+            this.start = start;
+        }
+
+        void complete(boolean failure) {
+            if (released.compareAndSet(false, true)) {
+                long duration = System.nanoTime() - start;
+                circuitBreaker.onResult(duration, failure);
+                concurrencyLimit.release(duration, failure);
+            }
+        }
+
+        void cancel() {
+            if (released.compareAndSet(false, true)) {
+                circuitBreaker.onIgnored();
+                concurrencyLimit.releaseIgnored();
+            }
+        }
+    }
+}
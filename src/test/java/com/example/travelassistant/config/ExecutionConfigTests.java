@@ -0,0 +1,52 @@
+package com.example.travelassistant.config;
+
+import com.example.travelassistant.service.support.SingleFlight;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionConfigTests {
+
+	@Test
+	void blockingCallsOnVirtualThreadsDoNotPinCarriers() {
+		Scheduler scheduler = new ExecutionConfig().blockingScheduler(true);
+		SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test");
+		AtomicInteger pinned = new AtomicInteger();
+		int tasks = 1_000;
+
+		try (RecordingStream recording = new RecordingStream()) {
+			recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+			recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.incrementAndGet());
+			recording.startAsync();
+
+			long start = System.nanoTime();
+			List<Integer> results = Flux.range(0, tasks)
+					.flatMap(i -> Mono.fromCallable(() -> singleFlight
+									.execute("key-" + i, () -> Mono.delay(Duration.ofMillis(200)).thenReturn(i))
+									.block())
+							.subscribeOn(scheduler), tasks)
+					.collectList()
+					.block(Duration.ofSeconds(30));
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+			recording.stop();
+
+			assertThat(results).hasSize(tasks);
+			// 1000 chamadas de 200ms em série levariam 200s; com virtual threads elas se sobrepõem
+			assertThat(elapsed).isLessThan(Duration.ofSeconds(10));
+			assertThat(pinned).hasValue(0);
+		}
+		finally {
+			scheduler.dispose();
+		}
+	}
+
+}
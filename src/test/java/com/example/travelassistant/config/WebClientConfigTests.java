@@ -0,0 +1,26 @@
+package com.example.travelassistant.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebClientConfigTests {
+
+	@Test
+	void uriTagDropsQueryStringWithKeyAndLocation() {
+		assertThat(WebClientConfig.uriTag("/v1/forecast.json?key=segredo&q=Lisboa,Portugal&days=7"))
+				.isEqualTo("/v1/forecast.json");
+		assertThat(WebClientConfig.uriTag("https://api.weatherapi.com/v1/search.json?key=segredo&q=Porto"))
+				.isEqualTo("/v1/search.json");
+		assertThat(WebClientConfig.uriTag("/v1beta/models/gemini-2.0-flash:streamGenerateContent?alt=sse&key=segredo"))
+				.isEqualTo("/v1beta/models/gemini-2.0-flash:streamGenerateContent");
+	}
+
+	@Test
+	void uriTagReplacesIdentifiers() {
+		assertThat(WebClientConfig.uriTag("/v1/trips/123456/items/3f2b9c1e-8d4a-4e1f-9b7a-0c6d5e4f3a2b"))
+				.isEqualTo("/v1/trips/{id}/items/{id}");
+		assertThat(WebClientConfig.uriTag("https://example.com")).isEqualTo("/");
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.example.travelassistant.controller;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.exception.ApiException;
+import com.example.travelassistant.model.storage.QueryRepository;
+import com.example.travelassistant.model.storage.TravelQuery;
+import com.example.travelassistant.model.storage.TravelQueryLog;
+import com.example.travelassistant.service.support.LocationCanonicalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoryResponsesTests {
+
+	private final QueryRepository repository = repository();
+
+	@Test
+	void fullPageCarriesCursorToTheNextOne() {
+		List<String> ids = save(TravelQuery.BAGGAGE, 5);
+		save(TravelQuery.ITINERARY, 3);
+
+		ResponseEntity<List<TravelQuery>> first = HistoryResponses.page(repository, TravelQuery.BAGGAGE, 2, null, null, null);
+		assertThat(first.getBody()).extracting(TravelQuery::getId).containsExactly(ids.get(0), ids.get(1));
+		assertThat(first.getHeaders().getFirst(HistoryResponses.NEXT_CURSOR_HEADER)).isEqualTo(ids.get(1));
+
+		ResponseEntity<List<TravelQuery>> second = HistoryResponses.page(repository, TravelQuery.BAGGAGE, 2, ids.get(1), null, null);
+		assertThat(second.getBody()).extracting(TravelQuery::getId).containsExactly(ids.get(2), ids.get(3));
+		assertThat(second.getHeaders().getFirst(HistoryResponses.NEXT_CURSOR_HEADER)).isEqualTo(ids.get(3));
+
+		ResponseEntity<List<TravelQuery>> last = HistoryResponses.page(repository, TravelQuery.BAGGAGE, 2, ids.get(3), null, null);
+		assertThat(last.getBody()).extracting(TravelQuery::getId).containsExactly(ids.get(4));
+		assertThat(last.getHeaders().containsKey(HistoryResponses.NEXT_CURSOR_HEADER)).isFalse();
+	}
+
+	@Test
+	void capsPageSize() {
+		save(TravelQuery.BAGGAGE, 1001);
+
+		assertThat(HistoryResponses.page(repository, TravelQuery.BAGGAGE, 5000, null, null, null).getBody()).hasSize(1000);
+		assertThat(HistoryResponses.page(repository, TravelQuery.BAGGAGE, 0, null, null, null).getBody()).hasSize(1);
+	}
+
+	@Test
+	void rejectsUnknownCursor() {
+		save(TravelQuery.BAGGAGE, 1);
+
+		assertThatThrownBy(() -> HistoryResponses.page(repository, TravelQuery.BAGGAGE, 10, "desconhecido", null, null))
+				.isInstanceOf(ApiException.class);
+	}
+
+	private List<String> save(String requestType, int count) {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			TravelQuery query = new TravelQuery();
+			query.setDestination("Lisboa, Portugal");
+			query.setRequestType(requestType);
+			ids.add(repository.save(query).getId());
+		}
+		return ids;
+	}
+
+	private static QueryRepository repository() {
+		AppConfig appConfig = new AppConfig();
+		ReflectionTestUtils.setField(appConfig, "locationCanonicalMaxEntries", 1000);
+		ReflectionTestUtils.setField(appConfig, "storageLogDirectory", "data/queries");
+		return new QueryRepository(new TravelQueryLog(appConfig, new ObjectMapper(), new SimpleMeterRegistry()), new LocationCanonicalizer(appConfig));
+	}
+
+}
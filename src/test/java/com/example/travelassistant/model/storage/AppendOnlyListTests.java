@@ -0,0 +1,86 @@
+package com.example.travelassistant.model.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AppendOnlyListTests {
+
+	@Test
+	void snapshotKeepsTheItemsPublishedWhenItWasTaken() {
+		AppendOnlyList<Integer> list = new AppendOnlyList<>();
+		list.add(1);
+		list.add(2);
+
+		List<Integer> snapshot = list.snapshot();
+		list.add(3);
+
+		assertThat(snapshot).containsExactly(1, 2);
+		assertThat(list.snapshot()).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void keepsOrderAcrossChunkBoundaries() {
+		AppendOnlyList<Integer> list = new AppendOnlyList<>();
+		List<Integer> before = null;
+		for (int i = 0; i < 3000; i++) {
+			list.add(i);
+			if (i == 1023) {
+				before = list.snapshot();
+			}
+		}
+
+		List<Integer> snapshot = list.snapshot();
+		assertThat(snapshot).hasSize(3000);
+		for (int i = 0; i < 3000; i++) {
+			assertThat(snapshot.get(i)).isEqualTo(i);
+		}
+		assertThat(before).hasSize(1024).endsWith(1023);
+	}
+
+	@Test
+	void snapshotIsReadOnlyAndBoundedBySize() {
+		AppendOnlyList<String> list = new AppendOnlyList<>();
+		list.add("a");
+		List<String> snapshot = list.snapshot();
+		list.add("b");
+
+		assertThatThrownBy(() -> snapshot.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+		assertThatThrownBy(() -> snapshot.add("c")).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void readersNeverSeeUnpublishedSlots() throws InterruptedException {
+		AppendOnlyList<Integer> list = new AppendOnlyList<>();
+		int total = 200_000;
+		AtomicReference<String> failure = new AtomicReference<>();
+
+		Thread reader = new Thread(() -> {
+			int seen = 0;
+			while (seen < total && failure.get() == null) {
+				List<Integer> snapshot = list.snapshot();
+				for (int i = seen; i < snapshot.size(); i++) {
+					Integer item = snapshot.get(i);
+					if (item == null || item != i) {
+						failure.set("posição " + i + " com " + item);
+						return;
+					}
+				}
+				seen = snapshot.size();
+			}
+		});
+		reader.start();
+		for (int i = 0; i < total; i++) {
+			list.add(i);
+		}
+		reader.join(10_000);
+
+		assertThat(failure.get()).isNull();
+		assertThat(list.size()).isEqualTo(total);
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.example.travelassistant.model.storage;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.LocationCanonicalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryRepositoryTests {
+
+	private final LocationCanonicalizer canonicalizer = new LocationCanonicalizer(appConfig());
+	private final QueryRepository repository = new QueryRepository(new TravelQueryLog(appConfig(), new ObjectMapper(), new SimpleMeterRegistry()), canonicalizer);
+
+	@Test
+	void groupsSpellingsIndexedBeforeTheLocationWasLearned() {
+		repository.save(query("Sampa, BR", TravelQuery.BAGGAGE));
+		repository.save(query("São Paulo, Brasil", TravelQuery.BAGGAGE));
+
+		// A WeatherAPI resolve "Sampa" para São Paulo depois que as consultas já foram indexadas
+		canonicalizer.learn("Sampa,BR", location("Sao Paulo", "Brazil"));
+		repository.save(query("Sao Paulo , Brazil", TravelQuery.ITINERARY));
+
+		assertThat(repository.findByDestination("sao paulo, BR"))
+				.extracting(TravelQuery::getDestination)
+				.containsExactly("Sampa, BR", "São Paulo, Brasil", "Sao Paulo , Brazil");
+		assertThat(repository.findByDestination("Sampa,Brazil")).hasSize(3);
+		assertThat(repository.findDestinationsByRequestType(TravelQuery.BAGGAGE)).containsExactly("Sampa, BR");
+	}
+
+	@Test
+	void keepsUnrelatedDestinationsApart() {
+		repository.save(query("Lisboa, Portugal", TravelQuery.BAGGAGE));
+		repository.save(query("Porto, PT", TravelQuery.BAGGAGE));
+
+		assertThat(repository.findByDestination("lisboa,pt")).extracting(TravelQuery::getDestination)
+				.containsExactly("Lisboa, Portugal");
+		assertThat(repository.findDestinationsByRequestType(TravelQuery.BAGGAGE)).containsExactly("Lisboa, Portugal", "Porto, PT");
+	}
+
+	@Test
+	void assignsTimestampsThatNeverGoBackwards() {
+		// Fim do horário de verão: o relógio local volta uma hora entre a segunda e a terceira gravação
+		Iterator<LocalDateTime> clock = List.of(
+				LocalDateTime.of(2024, 10, 27, 2, 50),
+				LocalDateTime.of(2024, 10, 27, 2, 59),
+				LocalDateTime.of(2024, 10, 27, 2, 5),
+				LocalDateTime.of(2024, 10, 27, 3, 10)).iterator();
+		QueryRepository repository = new QueryRepository(
+				new TravelQueryLog(appConfig(), new ObjectMapper(), new SimpleMeterRegistry()), canonicalizer, clock::next);
+
+		TravelQuery preset = query("Lisboa, Portugal", TravelQuery.BAGGAGE);
+		preset.setTimestamp(LocalDateTime.of(2030, 1, 1, 0, 0));
+		repository.save(preset);
+		repository.save(query("Porto, PT", TravelQuery.BAGGAGE));
+		repository.save(query("Faro, PT", TravelQuery.BAGGAGE));
+		repository.save(query("Braga, PT", TravelQuery.BAGGAGE));
+
+		assertThat(repository.findAll()).extracting(TravelQuery::getTimestamp).containsExactly(
+				LocalDateTime.of(2024, 10, 27, 2, 50),
+				LocalDateTime.of(2024, 10, 27, 2, 59),
+				LocalDateTime.of(2024, 10, 27, 2, 59),
+				LocalDateTime.of(2024, 10, 27, 3, 10));
+		assertThat(repository.findSince(LocalDateTime.of(2024, 10, 27, 2, 55))).extracting(TravelQuery::getDestination)
+				.containsExactly("Porto, PT", "Faro, PT", "Braga, PT");
+	}
+
+	private static TravelQuery query(String destination, String requestType) {
+		TravelQuery query = new TravelQuery();
+		query.setDestination(destination);
+		query.setRequestType(requestType);
+		return query;
+	}
+
+	private static WeatherResponse.Location location(String name, String country) {
+		WeatherResponse.Location location = new WeatherResponse.Location();
+		location.setName(name);
+		location.setCountry(country);
+		location.setLat(-23.53);
+		location.setLon(-46.62);
+		return location;
+	}
+
+	private static AppConfig appConfig() {
+		AppConfig appConfig = new AppConfig();
+		ReflectionTestUtils.setField(appConfig, "locationCanonicalMaxEntries", 1000);
+		ReflectionTestUtils.setField(appConfig, "storageLogDirectory", "data/queries");
+		return appConfig;
+	}
+
+}
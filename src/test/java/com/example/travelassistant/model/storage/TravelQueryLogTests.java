@@ -0,0 +1,150 @@
+package com.example.travelassistant.model.storage;
+
+import com.example.travelassistant.config.AppConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TravelQueryLogTests {
+
+	private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+	@TempDir
+	Path directory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	private final List<byte[]> written = new ArrayList<>();
+	private TravelQueryLog current;
+	private SimpleMeterRegistry meterRegistry;
+
+	@AfterEach
+	void closeLog() throws IOException {
+		current.close();
+	}
+
+	@Test
+	void replaysRecordsInOrder() throws IOException {
+		TravelQueryLog queryLog = open();
+		assertThat(queryLog.open()).isEmpty();
+		List<String> ids = append(queryLog, 3, 10);
+		queryLog.close();
+
+		assertThat(open().open()).extracting(TravelQuery::getId).containsExactlyElementsOf(ids);
+		assertThat(corruptions("truncated") + corruptions("skipped")).isZero();
+	}
+
+	@Test
+	void truncatesTornTailOfLastSegment() throws IOException {
+		TravelQueryLog queryLog = open();
+		queryLog.open();
+		List<String> ids = append(queryLog, 3, 10);
+		queryLog.close();
+
+		corrupt(segment(0), recordOffset(2) + HEADER_SIZE + 1);
+
+		TravelQueryLog reopened = open();
+		assertThat(reopened.open()).extracting(TravelQuery::getId).containsExactly(ids.get(0), ids.get(1));
+		assertThat(corruptions("truncated")).isEqualTo(1);
+
+		// O registro corrompido foi apagado, então o próximo é gravado no lugar dele e volta na leitura seguinte
+		String appended = append(reopened, 1, 10).get(0);
+		reopened.close();
+		assertThat(open().open()).extracting(TravelQuery::getId).containsExactly(ids.get(0), ids.get(1), appended);
+	}
+
+	@Test
+	void keepsEarlierSegmentAndReportsCorruption() throws IOException {
+		TravelQueryLog queryLog = open();
+		queryLog.open();
+		// Registros de ~300 KB: três por segmento de 1 MB
+		List<String> ids = append(queryLog, 5, 300_000);
+		queryLog.close();
+		assertThat(segments()).hasSize(2);
+
+		corrupt(segment(0), recordOffset(1) + HEADER_SIZE + 1);
+		byte[] corrupted = Files.readAllBytes(segment(0));
+
+		assertThat(open().open()).extracting(TravelQuery::getId)
+				.containsExactly(ids.get(0), ids.get(3), ids.get(4));
+		assertThat(corruptions("skipped")).isEqualTo(1);
+		assertThat(corruptions("truncated")).isZero();
+		assertThat(Files.readAllBytes(segment(0))).isEqualTo(corrupted);
+	}
+
+	private TravelQueryLog open() {
+		AppConfig appConfig = new AppConfig();
+		ReflectionTestUtils.setField(appConfig, "storageLogEnabled", true);
+		ReflectionTestUtils.setField(appConfig, "storageLogDirectory", directory.toString());
+		ReflectionTestUtils.setField(appConfig, "storageLogSegmentSizeMb", 1);
+		ReflectionTestUtils.setField(appConfig, "storageLogFsyncIntervalMs", 1000L);
+		meterRegistry = new SimpleMeterRegistry();
+		TravelQueryLog queryLog = new TravelQueryLog(appConfig, objectMapper, meterRegistry);
+		current = queryLog;
+		return queryLog;
+	}
+
+	private List<String> append(TravelQueryLog queryLog, int count, int payloadSize) {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			TravelQuery query = new TravelQuery();
+			query.setId("consulta-" + written.size());
+			query.setDestination("Lisboa, Portugal");
+			query.setRequestType(TravelQuery.BAGGAGE);
+			query.setRequestJson("x".repeat(payloadSize));
+			query.setTimestamp(LocalDateTime.of(2024, 5, 1, 12, 0).plusMinutes(written.size()));
+
+			byte[] record = queryLog.encode(query);
+			queryLog.append(record);
+			written.add(record);
+			ids.add(query.getId());
+		}
+		return ids;
+	}
+
+	// Posição do registro no primeiro segmento, a partir dos tamanhos gravados
+	private int recordOffset(int index) {
+		int offset = 0;
+		for (int i = 0; i < index; i++) {
+			offset += HEADER_SIZE + written.get(i).length;
+		}
+		return offset;
+	}
+
+	private static void corrupt(Path path, int position) throws IOException {
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[position] ^= 0x5A;
+		Files.write(path, bytes);
+	}
+
+	private Path segment(int number) throws IOException {
+		return segments().get(number);
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().toList();
+		}
+	}
+
+	private double corruptions(String action) {
+		return meterRegistry.counter("storage.log.corruptions", "action", action).count();
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.example.travelassistant.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayPlanStreamParserTests {
+
+	private static final String ITINERARY = "{\"destination\":\"Lisboa\",\"dayPlans\":["
+			+ "{\"day\":1,\"activities\":[{\"name\":\"Alfama\"}],\"notes\":\"leve { e } \\\"aspas\\\"\"},"
+			+ "{\"day\":2,\"activities\":[],\"notes\":\"barra \\\\\"}"
+			+ "],\"generalTips\":[{\"tip\":\"não é um plano\"}]}";
+
+	@Test
+	void emitsEachDayPlanWhenItCloses() {
+		DayPlanStreamParser parser = new DayPlanStreamParser();
+
+		assertThat(parser.feed(ITINERARY)).containsExactly(
+				"{\"day\":1,\"activities\":[{\"name\":\"Alfama\"}],\"notes\":\"leve { e } \\\"aspas\\\"\"}",
+				"{\"day\":2,\"activities\":[],\"notes\":\"barra \\\\\"}");
+		assertThat(parser.getText()).isEqualTo(ITINERARY);
+	}
+
+	@Test
+	void sameResultForAnyChunkSplit() {
+		List<String> whole = new DayPlanStreamParser().feed(ITINERARY);
+
+		for (int size = 1; size <= 7; size++) {
+			DayPlanStreamParser parser = new DayPlanStreamParser();
+			List<String> completed = new ArrayList<>();
+			for (int start = 0; start < ITINERARY.length(); start += size) {
+				completed.addAll(parser.feed(ITINERARY.substring(start, Math.min(ITINERARY.length(), start + size))));
+			}
+			assertThat(completed).as("trechos de %d caracteres", size).isEqualTo(whole);
+		}
+	}
+
+	@Test
+	void emitsPlanAsSoonAsItsObjectCloses() {
+		DayPlanStreamParser parser = new DayPlanStreamParser();
+
+		assertThat(parser.feed("{\"dayPlans\":[{\"day\":1")).isEmpty();
+		assertThat(parser.feed("},{\"day\"")).containsExactly("{\"day\":1}");
+		assertThat(parser.feed(":2}]}")).containsExactly("{\"day\":2}");
+	}
+
+	@Test
+	void ignoresDayPlansKeyOutsideRootObjectOrInsideStrings() {
+		DayPlanStreamParser parser = new DayPlanStreamParser();
+
+		assertThat(parser.feed("{\"summary\":\"\\\"dayPlans\\\":[{\\\"day\\\":0}]\","
+				+ "\"extra\":{\"dayPlans\":[{\"day\":9}]}}")).isEmpty();
+	}
+
+}
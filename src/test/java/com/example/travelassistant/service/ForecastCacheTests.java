@@ -0,0 +1,69 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.response.WeatherResponse;
+import com.example.travelassistant.service.support.LocationCanonicalizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForecastCacheTests {
+
+	private final AppConfig appConfig = appConfig();
+	private final ForecastCache cache = new ForecastCache(appConfig, new SimpleMeterRegistry(),
+			new LocationCanonicalizer(appConfig));
+
+	@Test
+	void sameNamedTownsKeepTheirOwnForecasts() {
+		cache.put("Springfield, IL", forecast("Illinois", 39.80, -89.64, 30));
+		cache.put("Springfield, MO", forecast("Missouri", 37.21, -93.29, 20));
+
+		WeatherResponse illinois = cache.get("Springfield, IL", 1).getResponse();
+		WeatherResponse missouri = cache.get("Springfield, MO", 1).getResponse();
+
+		assertThat(illinois.getLocation().getRegion()).isEqualTo("Illinois");
+		assertThat(illinois.getForecast().getForecastday().get(0).getDay().getMaxtempC()).isEqualTo(30);
+		assertThat(missouri.getLocation().getRegion()).isEqualTo("Missouri");
+		assertThat(missouri.getForecast().getForecastday().get(0).getDay().getMaxtempC()).isEqualTo(20);
+	}
+
+	private static WeatherResponse forecast(String region, double lat, double lon, double maxTemp) {
+		WeatherResponse.Location location = new WeatherResponse.Location();
+		location.setName("Springfield");
+		location.setRegion(region);
+		location.setCountry("United States of America");
+		location.setLat(lat);
+		location.setLon(lon);
+		location.setTzId("America/Chicago");
+
+		WeatherResponse.Day day = new WeatherResponse.Day();
+		day.setMaxtempC(maxTemp);
+		WeatherResponse.ForecastDay forecastDay = new WeatherResponse.ForecastDay();
+		forecastDay.setDate(LocalDate.now(ZoneId.of("America/Chicago")).toString());
+		forecastDay.setDay(day);
+		WeatherResponse.Forecast forecast = new WeatherResponse.Forecast();
+		forecast.setForecastday(List.of(forecastDay));
+
+		WeatherResponse response = new WeatherResponse();
+		response.setLocation(location);
+		response.setForecast(forecast);
+		return response;
+	}
+
+	private static AppConfig appConfig() {
+		AppConfig appConfig = new AppConfig();
+		ReflectionTestUtils.setField(appConfig, "weatherCacheTtlMinutes", 30L);
+		ReflectionTestUtils.setField(appConfig, "weatherCacheMaxStaleMinutes", 360L);
+		ReflectionTestUtils.setField(appConfig, "locationCanonicalMaxEntries", 1000);
+		ReflectionTestUtils.setField(appConfig, "weatherGeoRadiusKm", 15.0);
+		ReflectionTestUtils.setField(appConfig, "weatherGeoMaxAgeMinutes", 60L);
+		return appConfig;
+	}
+
+}
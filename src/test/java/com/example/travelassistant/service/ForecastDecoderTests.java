@@ -0,0 +1,148 @@
+package com.example.travelassistant.service;
+
+import com.example.travelassistant.model.response.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastDecoderTests {
+
+	private static final String CONDITION = "{\"text\":\"Sol\",\"icon\":\"//cdn/113.png\",\"code\":1000}";
+
+	private final ForecastDecoder decoder = new ForecastDecoder();
+
+	@Test
+	void fillsLocationAndDailySummary() {
+		WeatherResponse response = decode(forecast(day("2024-05-01", 1714521600L, 24.1, 14.3, 19.0, 35)));
+
+		WeatherResponse.Location location = response.getLocation();
+		assertThat(location.getName()).isEqualTo("Lisboa");
+		assertThat(location.getCountry()).isEqualTo("Portugal");
+		assertThat(location.getLat()).isEqualTo(38.72);
+		assertThat(location.getLon()).isEqualTo(-9.13);
+		assertThat(location.getTzId()).isEqualTo("Europe/Lisbon");
+		assertThat(location.getLocaltimeEpoch()).isEqualTo(1714561200L);
+
+		WeatherResponse.ForecastDay forecastDay = response.getForecast().getForecastday().get(0);
+		assertThat(forecastDay.getDate()).isEqualTo("2024-05-01");
+		assertThat(forecastDay.getDateEpoch()).isEqualTo(1714521600L);
+		assertThat(forecastDay.getDay().getMaxtempC()).isEqualTo(24.1);
+		assertThat(forecastDay.getDay().getMintempC()).isEqualTo(14.3);
+		assertThat(forecastDay.getDay().getAvgtempC()).isEqualTo(19.0);
+		assertThat(forecastDay.getDay().getDailyChanceOfRain()).isEqualTo(35);
+		assertThat(forecastDay.getDay().getCondition().getText()).isEqualTo("Sol");
+		assertThat(forecastDay.getDay().getCondition().getCode()).isEqualTo(1000);
+	}
+
+	@Test
+	void skipsCurrentAstroAndHourlyData() {
+		WeatherResponse response = decode(forecast(day("2024-05-01", 0, 24, 14, 19, 0)));
+
+		WeatherResponse.ForecastDay forecastDay = response.getForecast().getForecastday().get(0);
+		assertThat(response.getCurrent()).isNull();
+		assertThat(forecastDay.getAstro()).isNull();
+		assertThat(forecastDay.getHour()).isNull();
+		// Campos diários fora do resumo também ficam de fora
+		assertThat(forecastDay.getDay().getMaxtempF()).isZero();
+	}
+
+	@Test
+	void sharesConditionsWithSameCode() {
+		WeatherResponse response = decode(forecast(
+				day("2024-05-01", 0, 24, 14, 19, 0) + "," + day("2024-05-02", 0, 25, 15, 20, 10)));
+
+		assertThat(response.getForecast().getForecastday()).hasSize(2);
+		assertThat(response.getForecast().getForecastday().get(1).getDay().getCondition())
+				.isSameAs(response.getForecast().getForecastday().get(0).getDay().getCondition());
+	}
+
+	@Test
+	void rejectsBodyThatIsNotAnObject() {
+		assertThatThrownBy(() -> decode("[]")).isInstanceOf(UncheckedIOException.class);
+	}
+
+	@Test
+	void decodesBodySplitAcrossBuffers() {
+		String json = forecast(day("2024-05-01", 0, 24, 14, 19, 0) + "," + day("2024-05-02", 0, 25, 15, 20, 10));
+		WeatherResponse expected = decode(json);
+
+		for (int chunk : new int[] { 1, 7, 512 }) {
+			StepVerifier.create(decoder.decode(chunks(json, chunk), Long.MAX_VALUE))
+					.assertNext(response -> {
+						assertThat(response).isEqualTo(expected);
+						assertThat(response.getForecast().getForecastday().get(0).getHour()).isNull();
+					})
+					.verifyComplete();
+		}
+	}
+
+	@Test
+	void rejectsBodyOverTheLimit() {
+		String json = forecast(day("2024-05-01", 0, 24, 14, 19, 0));
+
+		StepVerifier.create(decoder.decode(chunks(json, 256), 1024))
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
+	@Test
+	void rejectsTruncatedBody() {
+		String json = forecast(day("2024-05-01", 0, 24, 14, 19, 0));
+
+		StepVerifier.create(decoder.decode(chunks(json.substring(0, json.length() / 2), 64), Long.MAX_VALUE))
+				.expectError(UncheckedIOException.class)
+				.verify();
+	}
+
+	private static Flux<DataBuffer> chunks(String json, int size) {
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int offset = 0; offset < bytes.length; offset += size) {
+			byte[] chunk = Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + size));
+			buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+		}
+		return Flux.fromIterable(buffers);
+	}
+
+	private WeatherResponse decode(String json) {
+		return decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String forecast(String days) {
+		return "{\"location\":{\"name\":\"Lisboa\",\"region\":\"Lisboa\",\"country\":\"Portugal\",\"lat\":38.72,\"lon\":-9.13,"
+				+ "\"tz_id\":\"Europe/Lisbon\",\"localtime_epoch\":1714561200,\"localtime\":\"2024-05-01 12:00\"},"
+				+ "\"current\":{\"temp_c\":21.0,\"condition\":" + CONDITION + "},"
+				+ "\"forecast\":{\"forecastday\":[" + days + "]}}";
+	}
+
+	private static String day(String date, long epoch, double max, double min, double avg, int chanceOfRain) {
+		StringBuilder hours = new StringBuilder();
+		for (int hour = 0; hour < 24; hour++) {
+			if (hour > 0) {
+				hours.append(',');
+			}
+			hours.append("{\"time_epoch\":").append(epoch + hour * 3600L)
+					.append(",\"temp_c\":").append(min + hour % 5)
+					.append(",\"condition\":").append(CONDITION).append('}');
+		}
+		return "{\"date\":\"" + date + "\",\"date_epoch\":" + epoch + ","
+				+ "\"day\":{\"maxtemp_c\":" + max + ",\"maxtemp_f\":75.4,\"mintemp_c\":" + min + ",\"avgtemp_c\":" + avg + ","
+				+ "\"daily_chance_of_rain\":" + chanceOfRain + ",\"condition\":" + CONDITION + "},"
+				+ "\"astro\":{\"sunrise\":\"06:40 AM\",\"sunset\":\"08:30 PM\"},"
+				+ "\"hour\":[" + hours + "]}";
+	}
+
+}
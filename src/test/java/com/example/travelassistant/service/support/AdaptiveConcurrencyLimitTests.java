@@ -0,0 +1,90 @@
+package com.example.travelassistant.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+	private static final long SLOW = Duration.ofMillis(200).toNanos();
+
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void rejectsAboveCurrentLimit() {
+		AdaptiveConcurrencyLimit limit = limit(2, 1, 4);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isFalse();
+		assertThat(limit.getRejected()).isEqualTo(1);
+
+		limit.releaseIgnored();
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void growsAdditivelyWhileTheLimitIsUsed() {
+		AdaptiveConcurrencyLimit limit = limit(2, 1, 3);
+
+		// 2 -> 2,5 -> 2,9 -> 3 (teto)
+		for (int i = 0; i < 3; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(FAST, false);
+			limit.releaseIgnored();
+		}
+
+		assertThat(limit.getLimit()).isEqualTo(3);
+		assertThat(limit.getInFlight()).isZero();
+	}
+
+	@Test
+	void doesNotGrowWhenIdle() {
+		AdaptiveConcurrencyLimit limit = limit(4, 1, 10);
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(FAST, false);
+		}
+
+		assertThat(limit.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void backsOffMultiplicativelyOncePerLatencyTarget() {
+		AdaptiveConcurrencyLimit limit = limit(8, 1, 10);
+
+		acquireAndRelease(limit, FAST, true);
+		assertThat(limit.getLimit()).isEqualTo(4);
+
+		// Erros e respostas lentas dentro do mesmo intervalo de latência alvo reduzem o limite uma única vez
+		acquireAndRelease(limit, SLOW, false);
+		assertThat(limit.getLimit()).isEqualTo(4);
+
+		now.addAndGet(Duration.ofMillis(100).toNanos());
+		acquireAndRelease(limit, SLOW, false);
+		assertThat(limit.getLimit()).isEqualTo(2);
+
+		for (int i = 0; i < 3; i++) {
+			now.addAndGet(Duration.ofMillis(100).toNanos());
+			acquireAndRelease(limit, FAST, true);
+		}
+		assertThat(limit.getLimit()).isEqualTo(1);
+	}
+
+	private AdaptiveConcurrencyLimit limit(int initial, int min, int max) {
+		return new AdaptiveConcurrencyLimit("test", initial, min, max, Duration.ofMillis(100), 0.5, now::get);
+	}
+
+	private static void acquireAndRelease(AdaptiveConcurrencyLimit limit, long durationNanos, boolean failure) {
+		assertThat(limit.tryAcquire()).isTrue();
+		limit.release(durationNanos, failure);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.example.travelassistant.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+	private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+	private final AtomicLong now = new AtomicLong();
+	private final CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 50, 50,
+			Duration.ofSeconds(1), Duration.ofSeconds(10), 2, now::get);
+
+	@Test
+	void opensWhenFailureRateReachesThresholdAfterMinimumCalls() {
+		call(false);
+		call(true);
+		call(true);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+		call(false);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquirePermission()).isFalse();
+		assertThat(breaker.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	void opensOnSlowCallsWithoutErrors() {
+		for (int i = 0; i < 4; i++) {
+			assertThat(breaker.tryAcquirePermission()).isTrue();
+			breaker.onResult(i % 2 == 0 ? SLOW : FAST, false);
+		}
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	void oldOutcomesLeaveTheWindow() {
+		call(false);
+		call(false);
+		call(true);
+		call(false);
+		// A primeira chamada sai da janela: continua com 1 erro em 4
+		call(false);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+		// A segunda sai e entra um erro: 2 em 4
+		call(true);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	void halfOpenTrialsCloseTheCircuit() {
+		open();
+
+		now.addAndGet(Duration.ofSeconds(9).toNanos());
+		assertThat(breaker.tryAcquirePermission()).isFalse();
+
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertThat(breaker.tryAcquirePermission()).isTrue();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquirePermission()).isTrue();
+		assertThat(breaker.tryAcquirePermission()).isFalse();
+
+		breaker.onResult(FAST, false);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		breaker.onResult(FAST, false);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+		// A janela recomeça vazia: um erro isolado não reabre
+		call(true);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void failedTrialReopensForAnotherFullPeriod() {
+		open();
+		now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+		assertThat(breaker.tryAcquirePermission()).isTrue();
+		breaker.onResult(SLOW, false);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+		now.addAndGet(Duration.ofSeconds(9).toNanos());
+		assertThat(breaker.tryAcquirePermission()).isFalse();
+	}
+
+	@Test
+	void ignoredTrialReturnsItsPermit() {
+		open();
+		now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+		assertThat(breaker.tryAcquirePermission()).isTrue();
+		assertThat(breaker.tryAcquirePermission()).isTrue();
+		breaker.onIgnored();
+
+		assertThat(breaker.tryAcquirePermission()).isTrue();
+		assertThat(breaker.tryAcquirePermission()).isFalse();
+	}
+
+	private void open() {
+		for (int i = 0; i < 4; i++) {
+			call(true);
+		}
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+	}
+
+	private void call(boolean failure) {
+		assertThat(breaker.tryAcquirePermission()).isTrue();
+		breaker.onResult(FAST, failure);
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.example.travelassistant.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoIndexTests {
+
+	private final GeoIndex index = new GeoIndex(25);
+
+	@Test
+	void findsNeighboursInAdjacentCells() {
+		// Longitude 0 e latitude 45 são bordas de célula do geohash em qualquer precisão
+		index.put("oeste", 45.0, -0.05);
+		index.put("sul", 44.95, 0.05);
+		assertThat(GeoIndex.encode(45.0, -0.05, 5)).isNotEqualTo(GeoIndex.encode(45.01, 0.05, 5));
+		assertThat(GeoIndex.encode(44.95, 0.05, 5)).isNotEqualTo(GeoIndex.encode(45.01, 0.05, 5));
+
+		assertThat(index.nearby(45.01, 0.05))
+				.extracting(GeoIndex.Match::key)
+				.containsExactlyInAnyOrder("oeste", "sul");
+	}
+
+	@Test
+	void cutsOffAtRadiusAndSortsByDistance() {
+		index.put("perto", -23.55, -46.63);
+		index.put("medio", -23.70, -46.63);
+		index.put("longe", -23.85, -46.63);
+
+		assertThat(index.nearby(-23.55, -46.64))
+				.extracting(GeoIndex.Match::key)
+				.containsExactly("perto", "medio");
+		assertThat(index.nearby(-23.55, -46.64).get(1).distanceKm()).isBetween(16.0, 18.0);
+	}
+
+	@Test
+	void findsNeighboursAcrossTheAntimeridian() {
+		index.put("leste", -17.0, 179.95);
+
+		assertThat(index.nearby(-17.0, -179.95))
+				.extracting(GeoIndex.Match::key)
+				.containsExactly("leste");
+	}
+
+	@Test
+	void movingKeyLeavesItsOldCell() {
+		index.put("cidade", 38.72, -9.14);
+		index.put("cidade", 41.15, -8.61);
+
+		assertThat(index.nearby(38.72, -9.14)).isEmpty();
+		assertThat(index.nearby(41.15, -8.61)).extracting(GeoIndex.Match::key).containsExactly("cidade");
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void encodesStandardGeohash() {
+		assertThat(GeoIndex.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.example.travelassistant.service.support;
+
+import com.example.travelassistant.config.AppConfig;
+import com.example.travelassistant.model.response.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationCanonicalizerTests {
+
+	private final LocationCanonicalizer canonicalizer = new LocationCanonicalizer(appConfig());
+
+	@Test
+	void sameNamedTownsInOneCountryKeepSeparateKeys() {
+		String illinois = canonicalizer.learn("Springfield, IL", location("Springfield", "Illinois", 39.80, -89.64));
+		String missouri = canonicalizer.learn("Springfield, MO", location("Springfield", "Missouri", 37.21, -93.29));
+
+		assertThat(illinois).isNotEqualTo(missouri);
+		assertThat(canonicalizer.canonicalKey("springfield , il")).isEqualTo(illinois);
+		assertThat(canonicalizer.canonicalKey("Springfield,MO")).isEqualTo(missouri);
+		assertThat(canonicalizer.find("Springfield, MO").region()).isEqualTo("Missouri");
+	}
+
+	@Test
+	void spellingsOfTheSamePlaceShareTheLearnedKey() {
+		String key = canonicalizer.learn("Sampa, BR", location("Sao Paulo", "Sao Paulo", "Brazil", -23.53, -46.62));
+
+		assertThat(canonicalizer.canonicalKey("São Paulo, Brasil")).isEqualTo(key);
+		assertThat(canonicalizer.canonicalKey("sao paulo,BR")).isEqualTo(key);
+		assertThat(canonicalizer.aliases(key)).contains("sampa,brazil", "sao paulo,brazil");
+	}
+
+	@Test
+	void regionAbbreviationsAreNotTakenForCountryCodes() {
+		assertThat(LocationCanonicalizer.fold("Springfield, MO")).isEqualTo("springfield,mo");
+		assertThat(LocationCanonicalizer.fold("Los Angeles, CA")).isEqualTo("los angeles,ca");
+		assertThat(LocationCanonicalizer.fold("Portland, ME")).isEqualTo("portland,me");
+		assertThat(LocationCanonicalizer.fold("Lisboa, PT")).isEqualTo("lisboa,portugal");
+		assertThat(LocationCanonicalizer.fold("Toronto, Canada")).isEqualTo("toronto,canada");
+		assertThat(LocationCanonicalizer.fold("Berlin, DEU")).isEqualTo("berlin,germany");
+	}
+
+	private static WeatherResponse.Location location(String name, String region, double lat, double lon) {
+		return location(name, region, "United States of America", lat, lon);
+	}
+
+	private static WeatherResponse.Location location(String name, String region, String country, double lat, double lon) {
+		WeatherResponse.Location location = new WeatherResponse.Location();
+		location.setName(name);
+		location.setRegion(region);
+		location.setCountry(country);
+		location.setLat(lat);
+		location.setLon(lon);
+		return location;
+	}
+
+	private static AppConfig appConfig() {
+		AppConfig appConfig = new AppConfig();
+		ReflectionTestUtils.setField(appConfig, "locationCanonicalMaxEntries", 1000);
+		return appConfig;
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.example.travelassistant.service.support;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestHedgerTests {
+
+	private static final Duration MIN_DELAY = Duration.ofMillis(50);
+
+	private final RequestHedger hedger = new RequestHedger("test", true, 95, MIN_DELAY, Duration.ofSeconds(1), 25);
+
+	@Test
+	void doesNotHedgeBeforeEnoughSamples() {
+		assertThat(hedger.getDelay()).isNull();
+
+		StepVerifier.withVirtualTime(() -> hedger.execute(slowThenFast(new AtomicBoolean())))
+				.thenAwait(Duration.ofSeconds(2))
+				.expectNext("original")
+				.verifyComplete();
+		assertThat(hedger.getHedgesSent()).isZero();
+	}
+
+	@Test
+	void hedgeWinsAndOriginalIsCancelled() {
+		warmUp();
+		assertThat(hedger.getDelay()).isEqualTo(MIN_DELAY);
+		AtomicBoolean cancelled = new AtomicBoolean();
+
+		StepVerifier.withVirtualTime(() -> hedger.execute(slowThenFast(cancelled)))
+				.thenAwait(MIN_DELAY)
+				.expectNext("hedge")
+				.verifyComplete();
+
+		assertThat(cancelled).isTrue();
+		assertThat(hedger.getHedgesSent()).isEqualTo(1);
+		assertThat(hedger.getHedgesWon()).isEqualTo(1);
+	}
+
+	@Test
+	void fastOriginalSkipsTheHedge() {
+		warmUp();
+		AtomicInteger calls = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> hedger.execute(() -> {
+					calls.incrementAndGet();
+					return Mono.delay(Duration.ofMillis(10)).thenReturn("original");
+				}))
+				.thenAwait(Duration.ofSeconds(1))
+				.expectNext("original")
+				.verifyComplete();
+
+		assertThat(calls).hasValue(1);
+		assertThat(hedger.getHedgesSent()).isZero();
+	}
+
+	@Test
+	void failedHedgeDoesNotWin() {
+		warmUp();
+		AtomicInteger calls = new AtomicInteger();
+
+		StepVerifier.withVirtualTime(() -> hedger.execute(() -> calls.incrementAndGet() == 1
+						? Mono.delay(Duration.ofMillis(500)).thenReturn("original")
+						: Mono.<String>error(new IllegalStateException("falhou"))))
+				.thenAwait(Duration.ofSeconds(1))
+				.expectNext("original")
+				.verifyComplete();
+
+		assertThat(hedger.getHedgesSent()).isEqualTo(1);
+		assertThat(hedger.getHedgesWon()).isZero();
+	}
+
+	@Test
+	void budgetCapsExtraRequests() {
+		warmUp();
+
+		for (int i = 0; i < 20; i++) {
+			StepVerifier.withVirtualTime(() -> hedger.execute(slowThenFast(new AtomicBoolean())))
+					.thenAwait(Duration.ofSeconds(2))
+					.expectNextCount(1)
+					.verifyComplete();
+		}
+
+		// 25% de 40 requisições (20 de aquecimento e 20 lentas)
+		assertThat(hedger.getRequests()).isEqualTo(40);
+		assertThat(hedger.getHedgesSent()).isEqualTo(10);
+	}
+
+	@Test
+	void disabledHedgerCallsOnce() {
+		RequestHedger disabled = new RequestHedger("test", false, 95, MIN_DELAY, Duration.ofSeconds(1), 100);
+		AtomicInteger calls = new AtomicInteger();
+
+		StepVerifier.create(disabled.execute(() -> {
+					calls.incrementAndGet();
+					return Mono.just("original");
+				}))
+				.expectNext("original")
+				.verifyComplete();
+
+		assertThat(calls).hasValue(1);
+		assertThat(disabled.getRequests()).isZero();
+	}
+
+	// Respostas imediatas: o atraso do hedge fica no mínimo configurado
+	private void warmUp() {
+		for (int i = 0; i < 20; i++) {
+			hedger.execute(() -> Mono.just("ok")).block(Duration.ofSeconds(5));
+		}
+	}
+
+	// A requisição original só responde depois de 1 s; a duplicada responde na hora
+	private static Supplier<Mono<String>> slowThenFast(AtomicBoolean originalCancelled) {
+		AtomicInteger calls = new AtomicInteger();
+		return () -> calls.incrementAndGet() == 1
+				? Mono.delay(Duration.ofSeconds(1)).thenReturn("original").doOnCancel(() -> originalCancelled.set(true))
+				: Mono.just("hedge");
+	}
+
+}
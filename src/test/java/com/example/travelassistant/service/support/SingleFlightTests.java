@@ -0,0 +1,86 @@
+package com.example.travelassistant.service.support;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTests {
+
+	private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test");
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void concurrentCallsWithSameKeyShareOneUpstreamCall() {
+		Sinks.One<String> upstream = Sinks.one();
+
+		StepVerifier first = StepVerifier.create(call("lisboa", upstream.asMono())).expectNext("ok").expectComplete().verifyLater();
+		StepVerifier second = StepVerifier.create(call("lisboa", upstream.asMono())).expectNext("ok").expectComplete().verifyLater();
+		assertThat(singleFlight.getInFlight()).isEqualTo(1);
+
+		upstream.tryEmitValue("ok");
+		first.verify(Duration.ofSeconds(5));
+		second.verify(Duration.ofSeconds(5));
+
+		assertThat(calls).hasValue(1);
+		assertThat(singleFlight.getRequests()).isEqualTo(2);
+		assertThat(singleFlight.getCoalesced()).isEqualTo(1);
+	}
+
+	@Test
+	void differentKeysDoNotShareCalls() {
+		Sinks.One<String> upstream = Sinks.one();
+
+		StepVerifier first = StepVerifier.create(call("lisboa", upstream.asMono())).expectNext("ok").expectComplete().verifyLater();
+		StepVerifier second = StepVerifier.create(call("porto", upstream.asMono())).expectNext("ok").expectComplete().verifyLater();
+
+		upstream.tryEmitValue("ok");
+		first.verify(Duration.ofSeconds(5));
+		second.verify(Duration.ofSeconds(5));
+
+		assertThat(calls).hasValue(2);
+		assertThat(singleFlight.getCoalesced()).isZero();
+	}
+
+	@Test
+	void errorReachesEveryWaitingCaller() {
+		Sinks.One<String> upstream = Sinks.one();
+
+		StepVerifier first = StepVerifier.create(call("lisboa", upstream.asMono())).expectErrorMessage("falhou").verifyLater();
+		StepVerifier second = StepVerifier.create(call("lisboa", upstream.asMono())).expectErrorMessage("falhou").verifyLater();
+
+		upstream.tryEmitError(new IllegalStateException("falhou"));
+		first.verify(Duration.ofSeconds(5));
+		second.verify(Duration.ofSeconds(5));
+
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void releasesKeyWhenCallEnds() {
+		StepVerifier.create(call("lisboa", Mono.error(new IllegalStateException("falhou"))))
+				.expectError(IllegalStateException.class)
+				.verify(Duration.ofSeconds(5));
+		assertThat(singleFlight.getInFlight()).isZero();
+
+		// Sem cache de resultados: a próxima chamada vai ao serviço de novo
+		StepVerifier.create(call("lisboa", Mono.just("ok")))
+				.expectNext("ok")
+				.verifyComplete();
+		assertThat(singleFlight.getInFlight()).isZero();
+		assertThat(calls).hasValue(2);
+	}
+
+	private Mono<String> call(String key, Mono<String> upstream) {
+		return singleFlight.execute(key, () -> {
+			calls.incrementAndGet();
+			return upstream;
+		});
+	}
+
+}
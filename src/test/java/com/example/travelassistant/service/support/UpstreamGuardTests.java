@@ -0,0 +1,49 @@
+package com.example.travelassistant.service.support;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamGuardTests {
+
+	private final CircuitBreaker circuitBreaker = new CircuitBreaker("test", 10, 1, 50, 100,
+			Duration.ofSeconds(10), Duration.ofSeconds(30), 1);
+	private final AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit("test", 2, 1, 2,
+			Duration.ofSeconds(10), 0.5);
+	private final UpstreamGuard guard = new UpstreamGuard("test", circuitBreaker, concurrencyLimit, e -> true,
+			Duration.ofMillis(100));
+
+	@Test
+	void hungCallTimesOutAsFailureAndReleasesPermit() {
+		StepVerifier.create(guard.execute(Mono::never))
+				.expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(concurrencyLimit.getInFlight()).isZero();
+		// Uma única chamada já forma a janela mínima, com 100% de falhas
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	void supplierThrowingSynchronouslyReleasesPermit() {
+		for (int i = 0; i < 3; i++) {
+			StepVerifier.create(guard.execute(() -> {
+						throw new IllegalStateException("falha ao montar a chamada");
+					}))
+					.expectError(IllegalStateException.class)
+					.verify(Duration.ofSeconds(5));
+		}
+
+		assertThat(concurrencyLimit.getInFlight()).isZero();
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		StepVerifier.create(guard.execute(() -> Mono.just("ok")))
+				.expectNext("ok")
+				.verifyComplete();
+	}
+
+}